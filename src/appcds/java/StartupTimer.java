@@ -0,0 +1,70 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Measures the wall time of launching a java command with and without a class data sharing archive.
+ * Run by the `appcds` profile with the single-file source launcher, so it needs no compilation:
+ *
+ * <pre>
+ * java StartupTimer.java &lt;runs&gt; &lt;archive&gt; java -cp &lt;jar&gt; &lt;main class&gt; [&lt;arguments&gt;...]
+ * </pre>
+ *
+ * @author Timothy Stratton
+ */
+public class StartupTimer {
+
+  public static void main(String[] args) throws IOException, InterruptedException {
+    if (args.length < 3) {
+      System.err.println("Usage: java StartupTimer.java <runs> <archive> <java command>...");
+      System.exit(2);
+    }
+    int runs = Integer.parseInt(args[0]);
+    String archive = args[1];
+    List<String> command = Arrays.asList(args).subList(2, args.length);
+
+    List<String> sharedCommand = new ArrayList<>(command);
+    sharedCommand.add(1, "-XX:SharedArchiveFile=" + archive);
+
+    //one untimed launch of each, so both start from a warm file system cache
+    launch(command);
+    launch(sharedCommand);
+
+    long[] withoutArchive = new long[runs];
+    long[] withArchive = new long[runs];
+    //interleaved, so a noisy neighbour slows both down alike
+    for (int i = 0; i < runs; i++) {
+      withoutArchive[i] = launch(command);
+      withArchive[i] = launch(sharedCommand);
+    }
+
+    long medianWithout = median(withoutArchive);
+    long medianWith = median(withArchive);
+    System.out.println("[INFO] Startup of " + command.subList(Math.min(4, command.size()), command.size()) + " over " + runs + " runs:");
+    System.out.println("[INFO]   without the archive: median " + medianWithout + " ms, min " + Arrays.stream(withoutArchive).min().getAsLong() + " ms");
+    System.out.println("[INFO]   with " + archive + ": median " + medianWith + " ms, min " + Arrays.stream(withArchive).min().getAsLong() + " ms");
+    System.out.println("[INFO]   saved " + (medianWithout - medianWith) + " ms ("
+        + Math.round(100.0 * (medianWithout - medianWith) / Math.max(medianWithout, 1)) + "%) per launch");
+  }
+
+  private static long launch(List<String> command) throws IOException, InterruptedException {
+    long start = System.nanoTime();
+    Process process = new ProcessBuilder(command)
+        .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+        .redirectError(ProcessBuilder.Redirect.DISCARD)
+        .start();
+    int exitCode = process.waitFor();
+    long millis = (System.nanoTime() - start) / 1_000_000;
+    if (exitCode != 0) {
+      throw new IllegalStateException(command + " exited with " + exitCode);
+    }
+    return millis;
+  }
+
+  private static long median(long[] values) {
+    long[] sorted = values.clone();
+    Arrays.sort(sorted);
+    return sorted[sorted.length / 2];
+  }
+}
@@ -0,0 +1,131 @@
+package com.blessedmusicalturkeys.projectreleasenotes.utilities;
+
+import com.blessedmusicalturkeys.projectreleasenotes.domain.JiraIssue;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import net.steppschuh.markdowngenerator.text.heading.Heading;
+import org.eclipse.jgit.util.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures rendering a release section, and rendering plus writing it to the changelog, for releases
+ * of different sizes. Run with `-prof gc` to see the allocation rate per release, against the two pass
+ * rendering with a Heading per line that the type-grouped renderer replaced. Writing starts from the same
+ * existing changelog on every invocation, so the measurement does not grow with the number of calls.
+ *
+ * @author Timothy Stratton
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ChangelogGeneratorBenchmark {
+
+  private static final List<String> ISSUE_TYPES = List.of("Story", "Bug", "Task", "Story", "Bug");
+  private static final int EXISTING_RELEASE_COUNT = 50;
+
+  @Param({"10", "100", "1000", "10000"})
+  public int issueCount;
+
+  @Param({"true", "false"})
+  public boolean prependToChangelog;
+
+  private File repositoryDir;
+  private Path changelogFile;
+  private String existingChangelog;
+  private List<JiraIssue> issues;
+  private ChangelogGenerator changelogGenerator;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    this.repositoryDir = Files.createTempDirectory("benchmark-changelog").toFile();
+    this.changelogFile = Files.createDirectories(this.repositoryDir.toPath()
+        .resolve(ChangelogGenerator.CHANGELOG_DIRECTORY_NAME)).resolve(ChangelogGenerator.CHANGELOG_FILE_NAME);
+    this.changelogGenerator = new ChangelogGenerator(this.prependToChangelog);
+    this.issues = new ArrayList<>(this.issueCount);
+
+    for (int i = 1; i <= this.issueCount; i++) {
+      this.issues.add(new JiraIssue("PROJ-" + i, ISSUE_TYPES.get(i % ISSUE_TYPES.size()),
+          "Summary of issue " + i, "A description of issue " + i + " that is a little longer than its summary",
+          Instant.now()));
+    }
+
+    //a changelog of earlier releases, the same size whatever the issue count, for the writes to prepend to
+    List<JiraIssue> releaseIssues = this.issues.subList(0, Math.min(10, this.issues.size()));
+    StringBuilder existingChangelogBuilder = new StringBuilder();
+    for (int release = EXISTING_RELEASE_COUNT; release > 0; release--) {
+      existingChangelogBuilder.append(this.changelogGenerator.renderChangelogSection("0." + release + ".0", releaseIssues))
+          .append("\n");
+    }
+    this.existingChangelog = existingChangelogBuilder.toString();
+  }
+
+  @Setup(Level.Invocation)
+  public void resetChangelog() throws IOException {
+    Files.writeString(this.changelogFile, this.existingChangelog);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    FileUtils.delete(this.repositoryDir, FileUtils.RECURSIVE | FileUtils.RETRY);
+  }
+
+  @Benchmark
+  public String renderChangelogSection() {
+    return this.changelogGenerator.renderChangelogSection("1.0.0", this.issues);
+  }
+
+  @Benchmark
+  public String legacyRenderChangelogSection() {
+    StringBuilder changelogBuilder = new StringBuilder();
+
+    changelogBuilder.append(new Heading("Release 1.0.0", 1)).append("\n");
+
+    //Story tickets
+    changelogBuilder.append(new Heading("Stories Completed", 2)).append("\n");
+    for (JiraIssue issue : this.issues) {
+      if ("Story".equals(issue.type())) {
+        changelogBuilder.append(new Heading(issue.key(), 3)).append("\n");
+        changelogBuilder.append(new Heading(issue.summary(), 4)).append("\n");
+        changelogBuilder.append(new Heading(issue.description(), 5)).append("\n\n");
+      }
+    }
+
+    //Bug Tickets
+    changelogBuilder.append(new Heading("Bugs Fixed", 2)).append("\n");
+    for (JiraIssue issue : this.issues) {
+      if ("Bug".equals(issue.type())) {
+        changelogBuilder.append(new Heading(issue.key(), 3)).append("\n");
+        changelogBuilder.append(new Heading(issue.summary(), 4)).append("\n");
+        changelogBuilder.append(new Heading(issue.description(), 5)).append("\n\n");
+      }
+    }
+
+    return changelogBuilder.toString();
+  }
+
+  @Benchmark
+  public void generateChangelogFromExisting() throws IOException {
+    this.changelogGenerator.generateChangelogFromExisting(this.repositoryDir, "1.0.0", this.issues);
+  }
+}
@@ -0,0 +1,150 @@
+package com.blessedmusicalturkeys.projectreleasenotes.utilities;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.util.FileUtils;
+
+/**
+ * Runs the whole changelog flow, clone, walk, fetch, render, commit and push, against a generated repository and a
+ * {@link StubJiraServer}, so its throughput can be measured without a git host or a JIRA instance.
+ *
+ * Every run bare clones the generated repository as the remote, reached over `file://`, and launches the application
+ * in a JVM of its own with the same environment as the harness, so e.g. `JIRA_FETCH_PARALLELISM` can be tuned from the
+ * outside. The wall time of every run is printed with the metrics report it wrote and what the stub served:
+ *
+ * <pre>
+ * java -cp &lt;classpath&gt; com.blessedmusicalturkeys.projectreleasenotes.utilities.EndToEndHarness [--commits=10000]
+ *     [--tags=50] [--runs=3] [--latencyMillis=0] [--errorRate=0] [--throttleRate=0] [--changelog=--full] [--keep]
+ * </pre>
+ *
+ * @author Timothy Stratton
+ */
+public class EndToEndHarness {
+
+  private static final String MAIN_CLASS = "com.blessedmusicalturkeys.projectreleasenotes.ProjectReleaseNotesApplication";
+
+  public static void main(String[] args) throws IOException, GitAPIException, InterruptedException {
+    Map<String, String> options = parseOptions(args);
+    int commitCount = Integer.parseInt(options.getOrDefault("commits", "10000"));
+    int tagCount = Integer.parseInt(options.getOrDefault("tags", "50"));
+    int runs = Integer.parseInt(options.getOrDefault("runs", "3"));
+    Duration latency = Duration.ofMillis(Long.parseLong(options.getOrDefault("latencyMillis", "0")));
+    double errorRate = Double.parseDouble(options.getOrDefault("errorRate", "0"));
+    double throttleRate = Double.parseDouble(options.getOrDefault("throttleRate", "0"));
+    String changelogArgument = options.getOrDefault("changelog", "--full");
+    boolean keep = options.containsKey("keep");
+
+    Path harnessDir = Files.createTempDirectory("load-test");
+    File sourceDir = harnessDir.resolve("source").toFile();
+    System.out.println("[INFO] Generating [" + commitCount + "] commits and [" + tagCount + "] tags in " + sourceDir + "...");
+    SyntheticRepository.generate(sourceDir, commitCount, tagCount).getGit().close();
+
+    long[] wallMillis = new long[runs];
+    try (StubJiraServer jiraServer = StubJiraServer.start(true, latency, errorRate, throttleRate)) {
+      System.out.println("[INFO] Stub JIRA at " + jiraServer.getUri() + " with [" + latency.toMillis() + "] ms latency, ["
+          + errorRate + "] error rate and [" + throttleRate + "] throttle rate");
+
+      for (int run = 0; run < runs; run++) {
+        Path runDir = Files.createDirectories(harnessDir.resolve("run-" + run));
+        wallMillis[run] = launch(sourceDir, runDir, jiraServer, changelogArgument);
+        System.out.println("[INFO] Run " + (run + 1) + " of " + runs + ": " + wallMillis[run] + " ms");
+
+        Path metricsReport = runDir.resolve("metrics.json");
+        if (Files.exists(metricsReport)) {
+          System.out.println(Files.readString(metricsReport));
+        }
+      }
+
+      long[] sorted = wallMillis.clone();
+      Arrays.sort(sorted);
+      System.out.println("[INFO] `--changelog " + changelogArgument + "` of " + commitCount + " commits and " + tagCount
+          + " tags over " + runs + " runs: median " + sorted[sorted.length / 2] + " ms, min " + sorted[0] + " ms, max "
+          + sorted[sorted.length - 1] + " ms");
+      System.out.println("[INFO] Stub JIRA served [" + jiraServer.getRequestsServed() + "] requests and ["
+          + jiraServer.getBytesServed() + "] bytes, of which [" + jiraServer.getThrottlesInjected() + "] throttled and ["
+          + jiraServer.getErrorsInjected() + "] failed");
+    } finally {
+      if (keep) {
+        System.out.println("[INFO] Repositories and run logs kept in " + harnessDir);
+      } else {
+        FileUtils.delete(harnessDir.toFile(), FileUtils.RECURSIVE | FileUtils.RETRY);
+      }
+    }
+  }
+
+  /**
+   * @return the wall time of the run in milliseconds
+   */
+  private static long launch(File sourceDir, Path runDir, StubJiraServer jiraServer, String changelogArgument)
+      throws IOException, GitAPIException, InterruptedException {
+    File remoteDir = runDir.resolve("remote.git").toFile();
+    ObjectId trunkBefore;
+    try (Git remote = Git.cloneRepository().setURI(sourceDir.toURI().toString()).setDirectory(remoteDir).setBare(true)
+        .call()) {
+      trunkBefore = remote.getRepository().resolve(Constants.R_HEADS + SyntheticRepository.TRUNK);
+    }
+
+    Path tmpDir = Files.createDirectories(runDir.resolve("tmp"));
+    File runLog = runDir.resolve("run.log").toFile();
+    List<String> command = List.of(
+        Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+        //keeps the clone of the application inside the run directory
+        "-Djava.io.tmpdir=" + tmpDir,
+        "-cp", System.getProperty("java.class.path"),
+        MAIN_CLASS, "--changelog", changelogArgument);
+
+    ProcessBuilder processBuilder = new ProcessBuilder(command)
+        .redirectErrorStream(true)
+        .redirectOutput(runLog);
+    Map<String, String> environment = processBuilder.environment();
+    environment.put("GIT_REPO_URL", "file://" + remoteDir.getAbsolutePath());
+    environment.put("GIT_WORKING_TRUNK", SyntheticRepository.TRUNK);
+    environment.put("JIRA_URL", jiraServer.getUri().toString());
+    environment.put("JIRA_SERVICE_ACCOUNT_USERNAME", "load-test");
+    environment.put("JIRA_SERVICE_ACCOUNT_API_KEY", "load-test");
+    environment.put("JIRA_PROJECT_KEY", SyntheticRepository.PROJECT_KEY);
+    environment.put("METRICS_REPORT_FILE", runDir.resolve("metrics.json").toString());
+
+    long start = System.nanoTime();
+    int exitCode = processBuilder.start().waitFor();
+    long millis = (System.nanoTime() - start) / 1_000_000;
+    if (exitCode != 0) {
+      throw new IllegalStateException("Run exited with " + exitCode + ", see " + runLog);
+    }
+
+    //the push is part of the flow, so a run that did not move the trunk of the remote did not finish it
+    try (Git remote = Git.open(remoteDir)) {
+      if (trunkBefore.equals(remote.getRepository().resolve(Constants.R_HEADS + SyntheticRepository.TRUNK))) {
+        throw new IllegalStateException("Run did not push the changelog, see " + runLog);
+      }
+    }
+    return millis;
+  }
+
+  private static Map<String, String> parseOptions(String... args) {
+    Map<String, String> options = new HashMap<>();
+    for (String arg : args) {
+      if (!arg.startsWith("--")) {
+        throw new IllegalArgumentException("Unknown argument [" + arg + "]");
+      }
+      int separator = arg.indexOf('=');
+      if (separator < 0) {
+        options.put(arg.substring(2), "true");
+      } else {
+        options.put(arg.substring(2, separator), arg.substring(separator + 1));
+      }
+    }
+    return options;
+  }
+}
@@ -0,0 +1,104 @@
+package com.blessedmusicalturkeys.projectreleasenotes.utilities;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.util.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the tag scan and the release range walks of {@link JGit} against generated repositories.
+ * The cold benchmarks include building the tag index, the warm ones reuse an index built during setup.
+ * The every tag benchmarks compare walking the range of each tag with partitioning the history in a single pass.
+ *
+ * @author Timothy Stratton
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class GitWalkBenchmark {
+
+  @Param({"1000", "10000", "100000"})
+  public int commitCount;
+
+  @Param({"50"})
+  public int tagCount;
+
+  private File repositoryDir;
+  private SyntheticRepository repository;
+  private JGit warmClient;
+  private String middleTag;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException, GitAPIException {
+    this.repositoryDir = Files.createTempDirectory("benchmark-repository").toFile();
+    this.repository = SyntheticRepository.generate(this.repositoryDir, this.commitCount, this.tagCount);
+
+    List<String> tags = this.repository.getTags();
+    this.middleTag = tags.get(tags.size() / 2);
+
+    this.warmClient = this.repository.newClient();
+    this.warmClient.listTags();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    this.repository.getGit().close();
+    FileUtils.delete(this.repositoryDir, FileUtils.RECURSIVE | FileUtils.RETRY);
+  }
+
+  @Benchmark
+  public List<String> listTagsCold() throws IOException {
+    return this.repository.newClient().listTags();
+  }
+
+  @Benchmark
+  public List<String> getIssuesWithinTagCold() throws IOException {
+    return this.repository.newClient().getIssuesWithinTag(this.middleTag);
+  }
+
+  @Benchmark
+  public List<String> getIssuesWithinTagWarm() throws IOException {
+    return this.warmClient.getIssuesWithinTag(this.middleTag);
+  }
+
+  @Benchmark
+  public List<String> getAllIssuesSinceLastTagWarm() throws IOException {
+    return this.warmClient.getAllIssuesSinceLastTag();
+  }
+
+  @Benchmark
+  public List<List<String>> getIssuesOfEveryTagPerTagWalk() throws IOException {
+    JGit client = this.repository.newClient();
+    List<List<String>> issues = new ArrayList<>();
+    for (String tag : this.repository.getTags()) {
+      issues.add(client.getIssuesWithinTag(tag));
+    }
+    return issues;
+  }
+
+  @Benchmark
+  public Map<String, List<String>> getIssuesOfEveryTagSinglePass() throws IOException {
+    return this.repository.newClient().getIssuesWithinTags(this.repository.getTags());
+  }
+}
@@ -0,0 +1,88 @@
+package com.blessedmusicalturkeys.projectreleasenotes.utilities;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares {@link IssueKeyExtractor} with the split-and-catch parsing it replaced, over a mix of
+ * merge commit messages for the different branch folders.
+ *
+ * @author Timothy Stratton
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IssueKeyExtractorBenchmark {
+
+  private static final String PROJECT_KEY = "PROJ";
+  private static final String CONST_MERGE_PREAMBLE = "Merged in";
+
+  private static final Set<String> LEGACY_GIT_FOLDERS = Set
+      .of("", //no folder
+          "feature/", "features/",
+          "hotfix/", "hotfixes/",
+          "fix/", "fixes/",
+          "bug/", "bugs/",
+          "bugfix/", "bugfixes/",
+          "release/", "releases/");
+
+  private final List<String> commitMessages = List.of(
+      "Merged in PROJ-101-first-change (pull request #1)",
+      "Merged in feature/PROJ-102-second-change (pull request #2)",
+      "Merged in hotfixes/PROJ-103-urgent (pull request #3)",
+      "Merged in bugfix/PROJ-104-broken-thing (pull request #4)",
+      "Merged in releases/PROJ-105 (pull request #5)");
+
+  private IssueKeyExtractor issueKeyExtractor;
+
+  @Setup
+  public void setUp() {
+    this.issueKeyExtractor = new IssueKeyExtractor(List.of(PROJECT_KEY), IssueKeyExtractor.DEFAULT_BRANCH_PREFIXES);
+  }
+
+  @Benchmark
+  public void precompiledExtractor(Blackhole blackhole) {
+    for (String commitMessage : this.commitMessages) {
+      blackhole.consume(this.issueKeyExtractor.extract(commitMessage));
+    }
+  }
+
+  @Benchmark
+  public void legacySplitParser(Blackhole blackhole) {
+    for (String commitMessage : this.commitMessages) {
+      blackhole.consume(legacyParseIssueKeyFromCommit(commitMessage));
+    }
+  }
+
+  /**
+   * The parsing as it was in JGit, minus the final RuntimeException for unparseable messages
+   */
+  private static String legacyParseIssueKeyFromCommit(String shortMessage) {
+    String unparsedIssueString;
+
+    for (String gitFolder : LEGACY_GIT_FOLDERS) {
+      try {
+        unparsedIssueString = shortMessage.split(CONST_MERGE_PREAMBLE + " " + gitFolder + PROJECT_KEY)[1];
+
+        return PROJECT_KEY + "-" + unparsedIssueString.split("-")[1];
+      } catch (IndexOutOfBoundsException e) { /* nothing to be done, continue */ }
+    }
+
+    return null;
+  }
+}
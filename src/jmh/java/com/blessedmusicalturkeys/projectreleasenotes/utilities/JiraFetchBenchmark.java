@@ -0,0 +1,71 @@
+package com.blessedmusicalturkeys.projectreleasenotes.utilities;
+
+import com.blessedmusicalturkeys.projectreleasenotes.domain.JiraIssue;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures fetching the issues of a release from a {@link StubJiraServer}, with the fields projected to the ones the
+ * changelog uses against every field of the issues. Run with `-prof gc` to see the allocation per release, the bytes
+ * served per release are printed at the end of each trial.
+ *
+ * @author Timothy Stratton
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class JiraFetchBenchmark {
+
+  @Param({"100", "1000"})
+  public int issueCount;
+
+  @Param({"true", "false"})
+  public boolean projectFields;
+
+  private StubJiraServer server;
+  private JiraClient client;
+  private List<String> issueKeys;
+  private long fetches;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    this.server = StubJiraServer.start(this.projectFields);
+    this.client = new JiraClient(this.server.getUri());
+
+    this.issueKeys = new ArrayList<>(this.issueCount);
+    for (int i = 1; i <= this.issueCount; i++) {
+      this.issueKeys.add(SyntheticRepository.PROJECT_KEY + "-" + i);
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    System.out.printf("%n[%d] bytes and [%d] requests served per release%n",
+        this.server.getBytesServed() / Math.max(this.fetches, 1), this.server.getRequestsServed() / Math.max(this.fetches, 1));
+    this.server.close();
+  }
+
+  @Benchmark
+  public List<JiraIssue> getIssueList() {
+    this.fetches++;
+    return this.client.getIssueList(this.issueKeys);
+  }
+}
@@ -0,0 +1,320 @@
+package com.blessedmusicalturkeys.projectreleasenotes.utilities;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Answers the part of the JIRA REST API that {@link JiraClient} uses, `/rest/api/2/search` with `key in (...)` and
+ * `key = ...` queries, from generated issues. Every well-formed key is a Story or a Bug with a short summary and
+ * description, and a `project ... AND updated > ...` revalidation finds nothing updated.
+ *
+ * Like JIRA, only the requested `fields` are returned, unless the server is told to ignore them. It then returns
+ * every field of the issue, as many custom fields as a typical JIRA instance has, which is what a fetch without
+ * field projection costs.
+ *
+ * For load tests every request can be delayed, and a share of them answered with a `503`, or with a `429` carrying a
+ * `Retry-After` header, the way JIRA Cloud rate limits.
+ *
+ * @author Timothy Stratton
+ */
+public class StubJiraServer implements AutoCloseable {
+
+  private static final String SEARCH_PATH = "/rest/api/2/search";
+  private static final Pattern ISSUE_KEY = Pattern.compile("\\b[A-Z][A-Z0-9_]*-[0-9]+\\b");
+  private static final int CUSTOM_FIELD_COUNT = 60;
+
+  private final HttpServer server;
+  private final boolean honourFields;
+  private final Duration latency;
+  private final double errorRate;
+  private final double throttleRate;
+  private final LongAdder requestsServed = new LongAdder();
+  private final LongAdder bytesServed = new LongAdder();
+  private final LongAdder errorsInjected = new LongAdder();
+  private final LongAdder throttlesInjected = new LongAdder();
+
+  private StubJiraServer(HttpServer server, boolean honourFields, Duration latency, double errorRate,
+      double throttleRate) {
+    this.server = server;
+    this.honourFields = honourFields;
+    this.latency = latency;
+    this.errorRate = errorRate;
+    this.throttleRate = throttleRate;
+  }
+
+  /**
+   * @param honourFields whether only the requested fields are returned, or every field of the issues
+   */
+  public static StubJiraServer start(boolean honourFields) throws IOException {
+    return start(honourFields, Duration.ZERO, 0, 0);
+  }
+
+  /**
+   * @param honourFields whether only the requested fields are returned, or every field of the issues
+   * @param latency      how long every request takes before it is answered
+   * @param errorRate    share of the requests answered with a `503`
+   * @param throttleRate share of the requests answered with a `429`
+   */
+  public static StubJiraServer start(boolean honourFields, Duration latency, double errorRate, double throttleRate)
+      throws IOException {
+    HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    StubJiraServer stubJiraServer = new StubJiraServer(server, honourFields, latency, errorRate, throttleRate);
+    server.createContext(SEARCH_PATH, stubJiraServer::handleSearch);
+    server.setExecutor(Executors.newCachedThreadPool());
+    server.start();
+    return stubJiraServer;
+  }
+
+  public URI getUri() {
+    return URI.create("http://127.0.0.1:" + this.server.getAddress().getPort());
+  }
+
+  public long getRequestsServed() {
+    return this.requestsServed.sum();
+  }
+
+  public long getBytesServed() {
+    return this.bytesServed.sum();
+  }
+
+  public long getErrorsInjected() {
+    return this.errorsInjected.sum();
+  }
+
+  public long getThrottlesInjected() {
+    return this.throttlesInjected.sum();
+  }
+
+  @Override
+  public void close() {
+    this.server.stop(0);
+  }
+
+  private void handleSearch(HttpExchange exchange) throws IOException {
+    try (exchange) {
+      if (injectFault(exchange)) {
+        return;
+      }
+
+      Map<String, String> parameters = parseQuery(exchange.getRequestURI().getRawQuery());
+      List<String> fields = new ArrayList<>(Arrays.asList(parameters.getOrDefault("fields", "*all").split(",")));
+      String jql = parameters.getOrDefault("jql", "");
+      int startAt = Integer.parseInt(parameters.getOrDefault("startAt", "0"));
+      int maxResults = Integer.parseInt(parameters.getOrDefault("maxResults", "50"));
+
+      if ("POST".equals(exchange.getRequestMethod())) {
+        String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+        jql = jsonString(body, "jql", jql);
+        startAt = jsonInt(body, "startAt", startAt);
+        maxResults = jsonInt(body, "maxResults", maxResults);
+        fields = jsonStrings(body, "fields", fields);
+      }
+
+      Set<String> issueKeys = new LinkedHashSet<>();
+      if (jql.trim().startsWith("key")) {
+        Matcher matcher = ISSUE_KEY.matcher(jql);
+        while (matcher.find()) {
+          issueKeys.add(matcher.group());
+        }
+      }
+
+      respond(exchange, 200, renderSearchResult(new ArrayList<>(issueKeys), startAt, maxResults,
+          this.honourFields && !fields.contains("*all") ? new LinkedHashSet<>(fields) : null));
+    }
+  }
+
+  /**
+   * @return whether the request was answered with a fault
+   */
+  private boolean injectFault(HttpExchange exchange) throws IOException {
+    if (!this.latency.isZero()) {
+      try {
+        Thread.sleep(this.latency.toMillis());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IOException(e);
+      }
+    }
+
+    double roll = ThreadLocalRandom.current().nextDouble();
+    if (roll < this.throttleRate) {
+      this.throttlesInjected.increment();
+      exchange.getResponseHeaders().set("Retry-After", "1");
+      respond(exchange, 429, "{\"errorMessages\":[\"Rate limit exceeded.\"],\"errors\":{}}");
+      return true;
+    } else if (roll < this.throttleRate + this.errorRate) {
+      this.errorsInjected.increment();
+      respond(exchange, 503, "{\"errorMessages\":[\"Service unavailable.\"],\"errors\":{}}");
+      return true;
+    }
+    return false;
+  }
+
+  private void respond(HttpExchange exchange, int status, String json) throws IOException {
+    byte[] body = json.getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().set("Content-Type", "application/json;charset=UTF-8");
+    exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+    if (body.length > 0) {
+      try (OutputStream outputStream = exchange.getResponseBody()) {
+        outputStream.write(body);
+      }
+    }
+    this.requestsServed.increment();
+    this.bytesServed.add(body.length);
+  }
+
+  /**
+   * @param fields the fields to return, or null for every field
+   */
+  private String renderSearchResult(List<String> issueKeys, int startAt, int maxResults, Set<String> fields) {
+    List<String> page = issueKeys.subList(Math.min(startAt, issueKeys.size()),
+        Math.min(startAt + maxResults, issueKeys.size()));
+    Map<String, String[]> fieldDefinitions = fieldDefinitions(fields);
+
+    StringBuilder json = new StringBuilder(1024 + page.size() * (fields == null ? 8192 : 1024));
+    json.append("{\"expand\":\"schema,names\",\"startAt\":").append(startAt)
+        .append(",\"maxResults\":").append(maxResults)
+        .append(",\"total\":").append(issueKeys.size())
+        .append(",\"issues\":[");
+    for (int i = 0; i < page.size(); i++) {
+      if (i > 0) {
+        json.append(',');
+      }
+      renderIssue(page.get(i), fieldDefinitions.keySet(), json);
+    }
+
+    json.append("],\"names\":{");
+    String separator = "";
+    for (Map.Entry<String, String[]> field : fieldDefinitions.entrySet()) {
+      json.append(separator).append(TextEscaping.jsonString(field.getKey())).append(':')
+          .append(TextEscaping.jsonString(field.getValue()[0]));
+      separator = ",";
+    }
+    json.append("},\"schema\":{");
+    separator = "";
+    for (Map.Entry<String, String[]> field : fieldDefinitions.entrySet()) {
+      json.append(separator).append(TextEscaping.jsonString(field.getKey())).append(':').append(field.getValue()[1]);
+      separator = ",";
+    }
+    return json.append("}}").toString();
+  }
+
+  private void renderIssue(String issueKey, Set<String> fields, StringBuilder json) {
+    String base = getUri().toString();
+    int number = Integer.parseInt(issueKey.substring(issueKey.lastIndexOf('-') + 1));
+    String projectKey = issueKey.substring(0, issueKey.lastIndexOf('-'));
+    boolean bug = number % 3 == 0;
+
+    json.append("{\"expand\":\"operations,versionedRepresentations,editmeta,changelog,renderedFields\",\"id\":\"")
+        .append(10000 + number).append("\",\"self\":\"").append(base).append("/rest/api/2/issue/")
+        .append(10000 + number).append("\",\"key\":\"").append(issueKey).append("\",\"fields\":{");
+
+    String separator = "";
+    for (String field : fields) {
+      json.append(separator).append('"').append(field).append("\":");
+      separator = ",";
+      switch (field) {
+        case "summary" -> json.append(TextEscaping.jsonString("Summary of " + issueKey));
+        case "description" -> json.append(TextEscaping.jsonString("Description of " + issueKey
+            + ", describing the change in a sentence or two."));
+        case "issuetype" -> json.append("{\"self\":\"").append(base).append("/rest/api/2/issuetype/")
+            .append(bug ? 1 : 10001).append("\",\"id\":\"").append(bug ? 1 : 10001)
+            .append("\",\"description\":\"\",\"iconUrl\":\"").append(base).append("/images/icons/issuetype.png\",\"name\":\"")
+            .append(bug ? "Bug" : "Story").append("\",\"subtask\":false}");
+        case "created" -> json.append("\"2023-01-02T10:00:00.000+0000\"");
+        case "updated" -> json.append("\"2023-01-03T10:00:00.000+0000\"");
+        case "project" -> json.append("{\"self\":\"").append(base).append("/rest/api/2/project/10000\",\"id\":\"10000\",\"key\":\"")
+            .append(projectKey).append("\",\"name\":\"").append(projectKey).append(" Project\"}");
+        case "status" -> json.append("{\"self\":\"").append(base).append("/rest/api/2/status/10002\",\"description\":\"\",\"iconUrl\":\"")
+            .append(base).append("/images/icons/status.png\",\"name\":\"Done\",\"id\":\"10002\",\"statusCategory\":{\"self\":\"")
+            .append(base).append("/rest/api/2/statuscategory/3\",\"id\":3,\"key\":\"done\",\"colorName\":\"green\",\"name\":\"Done\"}}");
+        default -> json.append(customFieldValue(field, issueKey));
+      }
+    }
+    json.append("}}");
+  }
+
+  /**
+   * @return the name and schema of each field, in the order they are rendered
+   */
+  private static Map<String, String[]> fieldDefinitions(Set<String> fields) {
+    Map<String, String[]> definitions = new LinkedHashMap<>();
+    definitions.put("summary", new String[]{"Summary", "{\"type\":\"string\",\"system\":\"summary\"}"});
+    definitions.put("issuetype", new String[]{"Issue Type", "{\"type\":\"issuetype\",\"system\":\"issuetype\"}"});
+    definitions.put("created", new String[]{"Created", "{\"type\":\"datetime\",\"system\":\"created\"}"});
+    definitions.put("updated", new String[]{"Updated", "{\"type\":\"datetime\",\"system\":\"updated\"}"});
+    definitions.put("project", new String[]{"Project", "{\"type\":\"project\",\"system\":\"project\"}"});
+    definitions.put("status", new String[]{"Status", "{\"type\":\"status\",\"system\":\"status\"}"});
+    definitions.put("description", new String[]{"Description", "{\"type\":\"string\",\"system\":\"description\"}"});
+    for (int i = 1; i <= CUSTOM_FIELD_COUNT; i++) {
+      definitions.put("customfield_" + (10000 + i), new String[]{"Custom Field " + i,
+          "{\"type\":\"string\",\"custom\":\"com.atlassian.jira.plugin.system.customfieldtypes:textarea\",\"customId\":"
+              + (10000 + i) + "}"});
+    }
+
+    if (fields != null) {
+      definitions.keySet().retainAll(fields);
+    }
+    return definitions;
+  }
+
+  private static String customFieldValue(String field, String issueKey) {
+    return TextEscaping.jsonString("Value of " + field + " on " + issueKey
+        + ", the kind of text a team keeps in its custom fields, repeated on every issue it fetches.");
+  }
+
+  private static Map<String, String> parseQuery(String rawQuery) {
+    Map<String, String> parameters = new LinkedHashMap<>();
+    if (rawQuery == null) {
+      return parameters;
+    }
+    for (String parameter : rawQuery.split("&")) {
+      String[] nameAndValue = parameter.split("=", 2);
+      parameters.put(URLDecoder.decode(nameAndValue[0], StandardCharsets.UTF_8),
+          nameAndValue.length == 2 ? URLDecoder.decode(nameAndValue[1], StandardCharsets.UTF_8) : "");
+    }
+    return parameters;
+  }
+
+  private static String jsonString(String json, String attribute, String defaultValue) {
+    Matcher matcher = Pattern.compile("\"" + attribute + "\"\\s*:\\s*\"((?:[^\"\\\\]|\\\\.)*)\"").matcher(json);
+    return matcher.find() ? matcher.group(1).replace("\\\"", "\"").replace("\\\\", "\\") : defaultValue;
+  }
+
+  private static int jsonInt(String json, String attribute, int defaultValue) {
+    Matcher matcher = Pattern.compile("\"" + attribute + "\"\\s*:\\s*(\\d+)").matcher(json);
+    return matcher.find() ? Integer.parseInt(matcher.group(1)) : defaultValue;
+  }
+
+  private static List<String> jsonStrings(String json, String attribute, List<String> defaultValues) {
+    Matcher matcher = Pattern.compile("\"" + attribute + "\"\\s*:\\s*\\[([^\\]]*)\\]").matcher(json);
+    if (!matcher.find()) {
+      return defaultValues;
+    }
+    List<String> values = new ArrayList<>();
+    Matcher value = Pattern.compile("\"([^\"]*)\"").matcher(matcher.group(1));
+    while (value.find()) {
+      values.add(value.group(1));
+    }
+    return values;
+  }
+}
@@ -0,0 +1,120 @@
+package com.blessedmusicalturkeys.projectreleasenotes.utilities;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.TimeZone;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.lib.CommitBuilder;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectInserter;
+import org.eclipse.jgit.lib.PersonIdent;
+import org.eclipse.jgit.lib.RefUpdate;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.lib.TreeFormatter;
+
+/**
+ * Generates a local repository shaped like a Bitbucket trunk: every issue is a work commit on a side
+ * branch followed by a `Merged in feature/KEY-n` merge commit, with tags spread evenly over the history
+ * and some untagged merges on top of the last tag.
+ *
+ * @author Timothy Stratton
+ */
+public class SyntheticRepository {
+
+  public static final String PROJECT_KEY = "PROJ";
+  public static final String TRUNK = "main";
+
+  private final Git git;
+  private final List<String> tags;
+
+  private SyntheticRepository(Git git, List<String> tags) {
+    this.git = git;
+    this.tags = tags;
+  }
+
+  /**
+   * @param commitCount total number of commits, half of them merges
+   * @param tagCount number of tags, the newest of which is followed by as many untagged merges as any other release
+   */
+  public static SyntheticRepository generate(File directory, int commitCount, int tagCount)
+      throws IOException, GitAPIException {
+    Git git = Git.init().setDirectory(directory).setInitialBranch(TRUNK).call();
+    Repository repository = git.getRepository();
+    List<String> tags = new ArrayList<>();
+
+    int issueCount = Math.max(commitCount / 2, 1);
+    int issuesPerTag = Math.max(issueCount / (tagCount + 1), 1);
+    long baseTime = System.currentTimeMillis() - issueCount * 2000L;
+
+    try (ObjectInserter inserter = repository.newObjectInserter()) {
+      ObjectId emptyTree = inserter.insert(new TreeFormatter());
+      ObjectId trunkTip = null;
+
+      for (int issue = 1; issue <= issueCount; issue++) {
+        PersonIdent author = new PersonIdent("benchmark", "benchmark@example.com",
+            new Date(baseTime + issue * 2000L), TimeZone.getTimeZone("UTC"));
+
+        CommitBuilder workCommit = new CommitBuilder();
+        workCommit.setTreeId(emptyTree);
+        if (trunkTip != null) {
+          workCommit.setParentId(trunkTip);
+        }
+        workCommit.setAuthor(author);
+        workCommit.setCommitter(author);
+        workCommit.setMessage(PROJECT_KEY + "-" + issue + " some work\n\nWith a longer description of the work.\n");
+        ObjectId workCommitId = inserter.insert(workCommit);
+
+        CommitBuilder mergeCommit = new CommitBuilder();
+        mergeCommit.setTreeId(emptyTree);
+        if (trunkTip != null) {
+          mergeCommit.setParentIds(trunkTip, workCommitId);
+        } else {
+          mergeCommit.setParentId(workCommitId);
+        }
+        mergeCommit.setAuthor(author);
+        mergeCommit.setCommitter(author);
+        mergeCommit.setMessage("Merged in feature/" + PROJECT_KEY + "-" + issue + "-some-work (pull request #" + issue + ")\n");
+        trunkTip = inserter.insert(mergeCommit);
+
+        if (issue % issuesPerTag == 0 && tags.size() < tagCount) {
+          String tag = "1." + (tags.size() / 100) + "." + (tags.size() % 100);
+          updateRef(repository, Constants.R_TAGS + tag, trunkTip);
+          tags.add(tag);
+        }
+      }
+      inserter.flush();
+
+      updateRef(repository, Constants.R_HEADS + TRUNK, trunkTip);
+    }
+
+    return new SyntheticRepository(git, tags);
+  }
+
+  private static void updateRef(Repository repository, String refName, ObjectId objectId) throws IOException {
+    RefUpdate refUpdate = repository.updateRef(refName);
+    refUpdate.setNewObjectId(objectId);
+    refUpdate.setForceUpdate(true);
+    refUpdate.update();
+  }
+
+  public Git getGit() {
+    return this.git;
+  }
+
+  /**
+   * @return the generated tags, oldest first
+   */
+  public List<String> getTags() {
+    return this.tags;
+  }
+
+  public JGit newClient() {
+    return new JGit(this.git, this.git.getRepository().getWorkTree(),
+        new IssueKeyExtractor(List.of(PROJECT_KEY), IssueKeyExtractor.DEFAULT_BRANCH_PREFIXES));
+  }
+}
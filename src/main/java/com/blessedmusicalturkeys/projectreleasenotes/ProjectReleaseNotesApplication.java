@@ -2,12 +2,14 @@ package com.blessedmusicalturkeys.projectreleasenotes;
 
 import com.blessedmusicalturkeys.projectreleasenotes.cli.CLIStrategy;
 import java.util.List;
+import lombok.extern.slf4j.Slf4j;
 
 /**
  * Entry point for the application which uses strategy pattern to determine how the request should be handled.
  *
  * @author Timothy Stratton
  */
+@Slf4j
 public class ProjectReleaseNotesApplication {
 
   public static void main(String[] args) {
@@ -15,7 +17,13 @@ public class ProjectReleaseNotesApplication {
 
     for (CLIStrategy strategy : strategies) {
       if (strategy.canHandle(args)) {
-        strategy.handleRequest(args);
+        try {
+          strategy.handleRequest(args);
+        } catch (RuntimeException e) {
+          //e.g. a rejected push, which has to fail the pipeline running the release
+          log.error("Request failed: [{}]", e.getMessage(), e);
+          System.exit(1);
+        }
         break;
       }
     }
@@ -1,8 +1,10 @@
 package com.blessedmusicalturkeys.projectreleasenotes.cli;
 
+import com.blessedmusicalturkeys.projectreleasenotes.cli.impl.BatchStrategy;
 import com.blessedmusicalturkeys.projectreleasenotes.cli.impl.HelpStrategy;
 import com.blessedmusicalturkeys.projectreleasenotes.cli.impl.ChangelogStrategy;
 import com.blessedmusicalturkeys.projectreleasenotes.cli.impl.ReleaseNotesStrategy;
+import com.blessedmusicalturkeys.projectreleasenotes.cli.impl.ServerStrategy;
 import com.blessedmusicalturkeys.projectreleasenotes.cli.impl.TagStrategy;
 import java.util.ArrayList;
 import java.util.List;
@@ -40,6 +42,8 @@ public interface CLIStrategy {
     strategies.add(new ChangelogStrategy());
     strategies.add(new ReleaseNotesStrategy());
     strategies.add(new TagStrategy());
+    strategies.add(new BatchStrategy());
+    strategies.add(new ServerStrategy());
 
     return strategies;
   }
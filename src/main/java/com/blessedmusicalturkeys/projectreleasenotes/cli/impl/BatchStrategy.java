@@ -0,0 +1,96 @@
+package com.blessedmusicalturkeys.projectreleasenotes.cli.impl;
+
+import com.blessedmusicalturkeys.projectreleasenotes.cli.CLIStrategy;
+import com.blessedmusicalturkeys.projectreleasenotes.constants.ApplicationConstants;
+import com.blessedmusicalturkeys.projectreleasenotes.constants.GitWorkspaceMode;
+import com.blessedmusicalturkeys.projectreleasenotes.domain.RunConfiguration;
+import com.blessedmusicalturkeys.projectreleasenotes.utilities.BatchManifest;
+import com.blessedmusicalturkeys.projectreleasenotes.utilities.JiraClient;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Generates the changelogs of every repository listed in a manifest within one JVM, a bounded number of
+ * repositories at a time. The JIRA client and its issue cache are shared by all of them, while a failing
+ * repository only fails its own run.
+ *
+ * @author Timothy Stratton
+ */
+@Slf4j
+public class BatchStrategy implements CLIStrategy {
+
+  @Override
+  public boolean canHandle(String... inputArguments) {
+    return CLIStrategy.globalCanHandleRequestChecker("-b", "--batch", inputArguments);
+  }
+
+  @Override
+  public void handleRequest(String... inputArgument) {
+    log.info("Batch request received...");
+
+    if (inputArgument.length < 2) {
+      log.info("Unsupported Operation requested. Rerun with `--help` option to see available operations");
+      throw new RuntimeException("Unsupported Operation");
+    }
+    List<String> defaultArguments = Arrays.asList(inputArgument).subList(2, inputArgument.length);
+
+    GitWorkspaceMode workspaceMode = GitWorkspaceMode.fromEnvironment();
+    List<RunConfiguration> repositories;
+    JiraClient jiraClient;
+    try {
+      repositories = BatchManifest.load(Path.of(inputArgument[1]));
+      jiraClient = new JiraClient();
+    } catch (IOException | URISyntaxException e) {
+      log.error("Initialization exception: [{}]", e.getMessage(), e);
+      throw new RuntimeException(e);
+    }
+
+    log.info("Generating the changelogs of [{}] repositories...", repositories.size());
+    Map<String, Future<?>> runs = new LinkedHashMap<>();
+    ExecutorService executor = Executors.newFixedThreadPool(
+        Math.max(Math.min(ApplicationConstants.CONST_BATCH_PARALLELISM, repositories.size()), 1));
+    try {
+      for (RunConfiguration repository : repositories) {
+        List<String> arguments = new ArrayList<>();
+        arguments.add("--changelog");
+        arguments.addAll(repository.arguments().isEmpty() ? defaultArguments : repository.arguments());
+
+        ChangelogStrategy changelogStrategy = new ChangelogStrategy(repository, workspaceMode, jiraClient);
+        runs.put(repository.name(), executor.submit(() -> changelogStrategy.handleRequest(arguments.toArray(new String[0]))));
+      }
+
+      List<String> failedRepositories = new ArrayList<>();
+      for (Map.Entry<String, Future<?>> run : runs.entrySet()) {
+        try {
+          run.getValue().get();
+          log.info("Repository [{}] done.", run.getKey());
+        } catch (ExecutionException e) {
+          log.error("Repository [{}] failed: [{}]", run.getKey(), e.getCause().getMessage(), e.getCause());
+          failedRepositories.add(run.getKey());
+        }
+      }
+
+      log.info("Batch Complete, [{}] of [{}] repositories succeeded.", runs.size() - failedRepositories.size(), runs.size());
+      if (!failedRepositories.isEmpty()) {
+        throw new RuntimeException("Batch failed for " + failedRepositories);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    } finally {
+      executor.shutdownNow();
+      jiraClient.saveIssueCache();
+    }
+  }
+}
@@ -1,18 +1,29 @@
 package com.blessedmusicalturkeys.projectreleasenotes.cli.impl;
 
-import com.atlassian.jira.rest.client.api.domain.Issue;
 import com.blessedmusicalturkeys.projectreleasenotes.cli.CLIStrategy;
-import com.blessedmusicalturkeys.projectreleasenotes.constants.SemanticVersion;
+import com.blessedmusicalturkeys.projectreleasenotes.constants.ApplicationConstants;
+import com.blessedmusicalturkeys.projectreleasenotes.constants.GitWorkspaceMode;
+import com.blessedmusicalturkeys.projectreleasenotes.domain.JiraIssue;
+import com.blessedmusicalturkeys.projectreleasenotes.domain.RunConfiguration;
 import com.blessedmusicalturkeys.projectreleasenotes.utilities.ChangelogGenerator;
+import com.blessedmusicalturkeys.projectreleasenotes.utilities.ChangelogManifest;
 import com.blessedmusicalturkeys.projectreleasenotes.utilities.JGit;
 import com.blessedmusicalturkeys.projectreleasenotes.utilities.JiraClient;
+import com.blessedmusicalturkeys.projectreleasenotes.utilities.ReleaseVersioning;
+import com.blessedmusicalturkeys.projectreleasenotes.utilities.RunMetrics;
 import java.io.IOException;
 import java.net.URISyntaxException;
-import java.util.Collections;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import lombok.extern.slf4j.Slf4j;
 import org.eclipse.jgit.api.errors.GitAPIException;
-import org.eclipse.jgit.errors.MissingObjectException;
 
 /**
  * Generates the Changelog for the configured project
@@ -22,6 +33,29 @@ import org.eclipse.jgit.errors.MissingObjectException;
 @Slf4j
 public class ChangelogStrategy implements CLIStrategy {
 
+  private static final String FULL_CHANGELOG_RELEASE_NAME = "full-changelog-generation";
+
+  private RunConfiguration configuration;
+  private GitWorkspaceMode workspaceMode;
+  private final JiraClient sharedJiraClient;
+
+  /**
+   * The configuration is read from the environment once a request is handled, so resolving e.g. `--help`
+   * never initializes {@link ApplicationConstants}
+   */
+  public ChangelogStrategy() {
+    this(null, null, null);
+  }
+
+  /**
+   * @param sharedJiraClient a long-lived client reused by every request, or null to connect to JIRA per request
+   */
+  public ChangelogStrategy(RunConfiguration configuration, GitWorkspaceMode workspaceMode, JiraClient sharedJiraClient) {
+    this.configuration = configuration;
+    this.workspaceMode = workspaceMode;
+    this.sharedJiraClient = sharedJiraClient;
+  }
+
   @Override
   public boolean canHandle(String... inputArguments) {
     return CLIStrategy.globalCanHandleRequestChecker("-c", "--changelog", inputArguments);
@@ -31,29 +65,86 @@ public class ChangelogStrategy implements CLIStrategy {
   public void handleRequest(String... inputArgument) {
     log.info("Changelog Generation request received...");
 
+    //a malformed request fails before anything is cloned or connected to
+    if (!isSupportedRequest(inputArgument)) {
+      log.info("Unsupported Operation requested. Rerun with `--help` option to see available operations");
+      throw new RuntimeException("Unsupported Operation");
+    }
+
+    if (this.configuration == null) {
+      this.configuration = RunConfiguration.fromEnvironment();
+      this.workspaceMode = GitWorkspaceMode.fromEnvironment();
+    }
+
+    RunMetrics runMetrics = RunMetrics.fromEnvironment("changelog", this.configuration.name());
+    boolean successful = false;
+    try {
+      runChangelogRequest(runMetrics, inputArgument);
+      successful = true;
+    } finally {
+      runMetrics.publish(successful);
+    }
+  }
+
+  private void runChangelogRequest(RunMetrics runMetrics, String... inputArgument) {
     JGit gitClient;
     JiraClient jiraClient;
     ChangelogGenerator changelogGenerator;
 
     log.info("Initializing the System...");
     try {
-      gitClient = new JGit();
-      jiraClient = new JiraClient();
-      changelogGenerator = new ChangelogGenerator();
+      try (RunMetrics.Timer ignored = runMetrics.time(RunMetrics.PHASE_GIT_OPEN)) {
+        gitClient = new JGit(this.configuration, this.workspaceMode);
+      }
+      if (this.sharedJiraClient != null) {
+        jiraClient = this.sharedJiraClient;
+      } else {
+        //cheap, the client only connects once there are issues to fetch
+        jiraClient = new JiraClient();
+        //a shared client serves concurrent requests, so only a client of our own reports into this run
+        jiraClient.setRunMetrics(runMetrics);
+      }
+      changelogGenerator = new ChangelogGenerator(this.configuration.prependToChangelog());
     } catch (GitAPIException | IOException | URISyntaxException e) {
       log.error("Initialization exception: [{}]", e.getMessage(), e);
       throw new RuntimeException(e);
     }
+    gitClient.setRunMetrics(runMetrics);
+    changelogGenerator.setRunMetrics(runMetrics);
 
+    try {
+      generateAndPublishChangelog(gitClient, jiraClient, changelogGenerator, inputArgument);
+    } finally {
+      gitClient.close();
+      //a shared client is saved by its owner
+      if (this.sharedJiraClient == null) {
+        jiraClient.saveIssueCache();
+      }
+    }
+  }
+
+  private static boolean isSupportedRequest(String... inputArgument) {
+    return inputArgument.length == 2
+        && (inputArgument[1].startsWith("--incrementVersion=") || inputArgument[1].startsWith("--tag=")
+        || inputArgument[1].startsWith("--full"));
+  }
+
+  private void generateAndPublishChangelog(JGit gitClient, JiraClient jiraClient, ChangelogGenerator changelogGenerator,
+      String... inputArgument) {
     log.info("Pulling all existing tags...");
     List<String> tags  = getAllTags(gitClient);
 
     log.info("Generating changelog...");
     String tagName = processGenerateChangelogRequest(gitClient, jiraClient, changelogGenerator, tags, inputArgument);
 
-    log.info("Committing changelog to new tag, merging to the make working trunk, and pushing...");
     try {
-      gitClient.commitChangelogTagAndPush(tagName);
+      if (tagName == null) {
+        log.info("Committing the full changelog to the working trunk and pushing...");
+        gitClient.commitChangelogAndPush(FULL_CHANGELOG_RELEASE_NAME);
+      } else {
+        log.info("Committing changelog to new tag, merging to the make working trunk, and pushing...");
+        gitClient.commitChangelogTagAndPush(tagName);
+      }
     } catch (GitAPIException | IOException e) {
       log.error("Unable to commit the changelog due to: [{}]", e.getMessage(), e);
       throw new RuntimeException(e);
@@ -62,6 +153,9 @@ public class ChangelogStrategy implements CLIStrategy {
     log.info("Changelog Generation Complete.");
   }
 
+  /**
+   * @return the tag to publish the changelog under, or null for `--full`, which only updates the trunk
+   */
   private String processGenerateChangelogRequest(JGit gitClient, JiraClient jiraClient, ChangelogGenerator changelogGenerator,
       List<String> tags, String... inputArgument) {
     String tagName;
@@ -72,29 +166,27 @@ public class ChangelogStrategy implements CLIStrategy {
         String versioningStrategy = inputArgument[1].split("--incrementVersion=")[1];
         List<String> issueKeys = gitClient.getAllIssuesSinceLastTag();
 
-        tagName = incrementReleaseNumber(tags, versioningStrategy);
+        tagName = incrementReleaseNumber(gitClient, versioningStrategy);
 
         generateChangelog(gitClient, jiraClient, changelogGenerator, tagName, issueKeys);
       } else if (numOfInputArguments == 2 && inputArgument[1].startsWith("--tag")) {
-        String tagToGenerateChangelogFor = inputArgument[1].split("--tag=")[1];
-        int tagIndex = tags.indexOf(tagToGenerateChangelogFor);
-        tagName = tags.get(tagIndex);
+        tagName = inputArgument[1].split("--tag=")[1];
+        if (gitClient.getTagCommitId(tagName) == null) {
+          throw new RuntimeException("Unknown tag [" + tagName + "]");
+        }
 
         List<String> issueKeys = gitClient.getIssuesWithinTag(tagName);
 
         generateChangelog(gitClient, jiraClient, changelogGenerator, tagName, issueKeys);
       } else if (numOfInputArguments == 2 && inputArgument[1].startsWith("--full")) {
-        for (String tag : tags) {
-          List<String> issueKeys = gitClient.getIssuesWithinTag(tag);
-
-          generateChangelog(gitClient, jiraClient, changelogGenerator, tag, issueKeys);
-        }
-        tagName = "full-changelog-generation";
+        generateFullChangelog(gitClient, jiraClient, changelogGenerator, tags);
+        //every release is tagged already, and a fixed tag name would clash on the next run
+        tagName = null;
       } else {
         log.info("Unsupported Operation requested. Rerun with `--help` option to see available operations");
         throw new RuntimeException("Unsupported Operation");
       }
-    } catch (GitAPIException | IOException e) {
+    } catch (IOException e) {
       log.error("Unable to generate the changelog due to: [{}]", e.getMessage() , e);
       throw new RuntimeException(e);
     }
@@ -102,53 +194,79 @@ public class ChangelogStrategy implements CLIStrategy {
     return tagName;
   }
 
-  private String incrementReleaseNumber(List<String> tags, String versioningStrategy) {
-    String tagName = null;
-    SemanticVersion incrementVersionBy;
-    try {
-      incrementVersionBy = SemanticVersion.valueOf(versioningStrategy);
-    } catch (IllegalArgumentException e) {
-      String semanticVersioningRegex = "^([0-9]+)\\.([0-9]+)\\.([0-9]+)(?:-([0-9A-Za-z-]+(?:\\.[0-9A-Za-z-]+)*))?(?:\\+[0-9A-Za-z-]+)?$";
-
-      if (versioningStrategy.matches(semanticVersioningRegex)) {
-        return versioningStrategy;
-      } else {
-        log.info("Version flag must equal: `MAJOR`, `MINOR`, `PATCH`, or provide an explicit semantic version, e.g. 1.2.3");
-        throw new RuntimeException("Unsupported Versioning Strategy");
-      }
-    }
-
-    String[] lastTag = tags.get(tags.size()-1).split("\\.");
-
-    if (SemanticVersion.MAJOR == incrementVersionBy) {
-      int majorVersion = Integer.parseInt(lastTag[0])+1;
-      tagName = majorVersion + ".0.0";
-    } else if (SemanticVersion.MINOR == incrementVersionBy) {
-      int minorVersion = Integer.parseInt(lastTag[1])+1;
-      tagName = lastTag[0] + "." + minorVersion + ".0";
-    } else if (SemanticVersion.PATCH == incrementVersionBy) {
-      int patchVersion = Integer.parseInt(lastTag[2])+1;
-      tagName = lastTag[0] + "." + lastTag[1] + "." + patchVersion;
-    }
-
-    return tagName;
+  private String incrementReleaseNumber(JGit gitClient, String versioningStrategy) throws IOException {
+    return ReleaseVersioning.nextReleaseName(gitClient.getReleaseTagIndex().getLatestRelease(), versioningStrategy);
   }
 
+  /**
+   * @return the release tags, highest version first
+   */
   private List<String> getAllTags(JGit gitClient) {
     List<String> tags;
     try {
-      tags = gitClient.listTags();
-    } catch (MissingObjectException | GitAPIException e) {
+      tags = gitClient.listReleaseTags();
+    } catch (IOException e) {
       log.error("Unable to retrieve tags for the GIT repo due to: [{}]", e.getMessage(), e);
       throw new RuntimeException(e);
     }
-    Collections.reverse(tags);
     return tags;
   }
 
+  /**
+   * Only the tags that are new, whose commit or previous tag's commit has moved, or whose section would render
+   * differently since the last full generation, are fetched and rendered. The sections of all other tags are copied
+   * through from the existing changelog.
+   */
+  private void generateFullChangelog(JGit gitClient, JiraClient jiraClient, ChangelogGenerator changelogGenerator,
+      List<String> tagsNewestFirst) throws IOException {
+
+    ChangelogManifest manifest = changelogGenerator.loadManifest(gitClient.getWorkingDir());
+    Map<String, String> tagCommitIds = new HashMap<>();
+    Map<String, String> previousCommitIds = new HashMap<>();
+    Map<String, Future<String>> pendingSections = new LinkedHashMap<>();
+    Map<String, String> renderedSections = new HashMap<>();
+
+    ExecutorService executor = Executors.newFixedThreadPool(Math.max(ApplicationConstants.CONST_CHANGELOG_PARALLELISM, 1));
+    try {
+      List<String> tagsToRender = new ArrayList<>();
+      for (String tag : tagsNewestFirst) {
+        String commitId = gitClient.getTagCommitId(tag);
+        tagCommitIds.put(tag, commitId);
+        String previousTag = gitClient.getPreviousTag(tag);
+        String previousCommitId = previousTag == null ? null : gitClient.getTagCommitId(previousTag);
+        if (previousCommitId != null) {
+          previousCommitIds.put(tag, previousCommitId);
+        }
+
+        if (manifest.getReusableSection(tag, commitId, previousCommitId, changelogGenerator.getConfigurationHash()) == null) {
+          tagsToRender.add(tag);
+        }
+      }
+
+      //the JIRA fetch and rendering of a tag start in the pool as soon as its part of the history is walked
+      gitClient.getIssuesWithinTags(tagsToRender, (tag, issueKeys) -> pendingSections.put(tag, executor.submit(
+          () -> changelogGenerator.renderChangelogSection(tag, jiraClient.getIssueList(issueKeys)))));
+
+      for (Map.Entry<String, Future<String>> pendingSection : pendingSections.entrySet()) {
+        renderedSections.put(pendingSection.getKey(), pendingSection.getValue().get());
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    } catch (ExecutionException e) {
+      throw new RuntimeException(e.getCause());
+    } finally {
+      executor.shutdownNow();
+    }
+
+    log.info("Rendered [{}] of [{}] changelog sections, reusing the rest...", renderedSections.size(), tagsNewestFirst.size());
+    changelogGenerator.writeFullChangelog(gitClient.getWorkingDir(), tagsNewestFirst, tagCommitIds, previousCommitIds,
+        manifest, renderedSections);
+  }
+
   private void generateChangelog(JGit gitClient, JiraClient jiraClient, ChangelogGenerator changelogGenerator, String tagName, List<String> jiraIssueKeys)
       throws IOException {
-    List<Issue> jiraIssues = jiraClient.getIssueList(jiraIssueKeys);
+    List<JiraIssue> jiraIssues = jiraClient.getIssueList(jiraIssueKeys);
 
     changelogGenerator.generateChangelogFromExisting(gitClient.getWorkingDir(), tagName, jiraIssues);
   }
@@ -25,8 +25,10 @@ public class HelpStrategy implements CLIStrategy {
     output.append("\tjava -cp project-release-notes.jar com.blessedmusicalturkeys.projectreleasenotes.ProjectReleaseNotesApplication (-c | --changelog) --incrementVersion=(MAJOR | MINOR | PATCH)").append("\n");
     output.append("\tjava -cp project-release-notes.jar com.blessedmusicalturkeys.projectreleasenotes.ProjectReleaseNotesApplication (-c | --changelog) --tag=<tag-name").append("\n");
     output.append("\tjava -cp project-release-notes.jar com.blessedmusicalturkeys.projectreleasenotes.ProjectReleaseNotesApplication (-c | --changelog) --full").append("\n");
-    output.append("\tjava -cp project-release-notes.jar com.blessedmusicalturkeys.projectreleasenotes.ProjectReleaseNotesApplication (-t | --tag) <tag-name>").append("\n");
-    output.append("\tjava -cp project-release-notes.jar com.blessedmusicalturkeys.projectreleasenotes.ProjectReleaseNotesApplication (-r | --release-notes) <email-to-send-release-notes-to> [<space-delimited-emails-to-send-release-notes-to>...]").append("\n");
+    output.append("\tjava -cp project-release-notes.jar com.blessedmusicalturkeys.projectreleasenotes.ProjectReleaseNotesApplication (-t | --tag) (<tag-name> | --incrementVersion=(MAJOR | MINOR | PATCH))").append("\n");
+    output.append("\tjava -cp project-release-notes.jar com.blessedmusicalturkeys.projectreleasenotes.ProjectReleaseNotesApplication (-r | --release-notes) [--tag=<tag-name>] [--format=(MARKDOWN | JSON | HTML)] [--output=<file>]").append("\n");
+    output.append("\tjava -cp project-release-notes.jar com.blessedmusicalturkeys.projectreleasenotes.ProjectReleaseNotesApplication (-b | --batch) <manifest-file> [--incrementVersion=(MAJOR | MINOR | PATCH) | --full]").append("\n");
+    output.append("\tjava -cp project-release-notes.jar com.blessedmusicalturkeys.projectreleasenotes.ProjectReleaseNotesApplication (-s | --server) [--port=<port>] [--manifest=<manifest-file>]").append("\n");
 
     System.out.println(output);
   }
@@ -1,14 +1,59 @@
 package com.blessedmusicalturkeys.projectreleasenotes.cli.impl;
 
 import com.blessedmusicalturkeys.projectreleasenotes.cli.CLIStrategy;
+import com.blessedmusicalturkeys.projectreleasenotes.constants.ApplicationConstants;
+import com.blessedmusicalturkeys.projectreleasenotes.constants.GitWorkspaceMode;
+import com.blessedmusicalturkeys.projectreleasenotes.constants.ReleaseNotesFormat;
+import com.blessedmusicalturkeys.projectreleasenotes.domain.JiraIssue;
+import com.blessedmusicalturkeys.projectreleasenotes.domain.RunConfiguration;
+import com.blessedmusicalturkeys.projectreleasenotes.utilities.JGit;
+import com.blessedmusicalturkeys.projectreleasenotes.utilities.JiraClient;
+import com.blessedmusicalturkeys.projectreleasenotes.utilities.ReleaseNotesWriter;
+import com.blessedmusicalturkeys.projectreleasenotes.utilities.RunMetrics;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.jgit.api.errors.GitAPIException;
 
 /**
- * Generates the Release Notes for a tag of the configured project
+ * Generates the Release Notes for a tag of the configured project. Only the commits between the previous tag and
+ * the tag are walked and only their issues are fetched, nothing is committed or pushed and the changelog is left
+ * alone. The notes are streamed to stdout, or to the file given with `--output`, or to the writer the server hands in.
+ * Logging goes to stderr, so stdout only ever holds the notes, e.g. `--format=JSON > notes.json`.
  *
  * @author Timothy Stratton
  */
+@Slf4j
 public class ReleaseNotesStrategy implements CLIStrategy {
 
+  private RunConfiguration configuration;
+  private GitWorkspaceMode workspaceMode;
+  private final JiraClient sharedJiraClient;
+
+  /**
+   * The configuration is read from the environment once a request is handled
+   */
+  public ReleaseNotesStrategy() {
+    this(null, null, null);
+  }
+
+  /**
+   * @param sharedJiraClient a long-lived client reused by every request, or null to connect to JIRA per request
+   */
+  public ReleaseNotesStrategy(RunConfiguration configuration, GitWorkspaceMode workspaceMode, JiraClient sharedJiraClient) {
+    this.configuration = configuration;
+    this.workspaceMode = workspaceMode;
+    this.sharedJiraClient = sharedJiraClient;
+  }
+
   @Override
   public boolean canHandle(String... inputArguments) {
 
@@ -17,6 +62,129 @@ public class ReleaseNotesStrategy implements CLIStrategy {
 
   @Override
   public void handleRequest(String... inputArgument) {
-    System.out.println("Not yet implemented");
+    handleRequest(null, inputArgument);
+  }
+
+  /**
+   * @param output opens the writer for the notes in the requested format instead of stdout, e.g. the body of a server
+   *               response, in which case `--output` is rejected; null to honour `--output`. It is only called once
+   *               the issues are fetched, so a failure before then has written nothing.
+   * @return the format the notes were written in
+   */
+  public ReleaseNotesFormat handleRequest(Function<ReleaseNotesFormat, Writer> output, String... inputArgument) {
+    log.info("Release Notes request received...");
+
+    String tagName = null;
+    ReleaseNotesFormat format = ReleaseNotesFormat.MARKDOWN;
+    String outputFile = null;
+    for (int i = 1; i < inputArgument.length; i++) {
+      if (inputArgument[i].startsWith("--tag=")) {
+        tagName = inputArgument[i].split("--tag=")[1];
+      } else if (inputArgument[i].startsWith("--format=")) {
+        try {
+          format = ReleaseNotesFormat.valueOf(inputArgument[i].split("--format=")[1].toUpperCase());
+        } catch (IllegalArgumentException e) {
+          log.info("Format flag must equal: `MARKDOWN`, `JSON` or `HTML`");
+          throw new RuntimeException("Unsupported Release Notes Format");
+        }
+      } else if (inputArgument[i].startsWith("--output=")) {
+        if (output != null) {
+          log.info("Release notes requested from the server are returned in the response, `--output` is not supported");
+          throw new RuntimeException("Unsupported Operation");
+        }
+        outputFile = inputArgument[i].split("--output=")[1];
+      } else {
+        log.info("Unsupported Operation requested. Rerun with `--help` option to see available operations");
+        throw new RuntimeException("Unsupported Operation");
+      }
+    }
+
+    if (this.configuration == null) {
+      this.configuration = RunConfiguration.fromEnvironment();
+      this.workspaceMode = GitWorkspaceMode.fromEnvironment();
+    }
+
+    RunMetrics runMetrics = RunMetrics.fromEnvironment("release-notes", this.configuration.name());
+    boolean successful = false;
+    try {
+      generateReleaseNotes(runMetrics, tagName, format, output, outputFile);
+      successful = true;
+    } finally {
+      runMetrics.publish(successful);
+    }
+    return format;
+  }
+
+  private void generateReleaseNotes(RunMetrics runMetrics, String tagName, ReleaseNotesFormat format,
+      Function<ReleaseNotesFormat, Writer> output, String outputFile) {
+    JGit gitClient;
+    JiraClient jiraClient;
+
+    log.info("Initializing the System...");
+    try {
+      try (RunMetrics.Timer ignored = runMetrics.time(RunMetrics.PHASE_GIT_OPEN)) {
+        gitClient = new JGit(this.configuration, this.workspaceMode);
+      }
+      if (this.sharedJiraClient != null) {
+        jiraClient = this.sharedJiraClient;
+      } else {
+        jiraClient = new JiraClient();
+        jiraClient.setRunMetrics(runMetrics);
+      }
+    } catch (GitAPIException | IOException | URISyntaxException e) {
+      log.error("Initialization exception: [{}]", e.getMessage(), e);
+      throw new RuntimeException(e);
+    }
+    gitClient.setRunMetrics(runMetrics);
+
+    try {
+      List<String> tags = gitClient.listReleaseTags();
+      if (tags.isEmpty()) {
+        throw new RuntimeException("The repository has no tags to generate release notes for");
+      }
+      String releaseName = tagName == null ? tags.get(0) : tagName;
+      if (gitClient.getTagCommitId(releaseName) == null) {
+        throw new RuntimeException("Unknown tag [" + releaseName + "]");
+      }
+      String previousReleaseName = gitClient.getPreviousTag(releaseName);
+
+      log.info("Generating release notes for [{}] since [{}]...", releaseName, previousReleaseName);
+      List<String> issueKeys = gitClient.getIssuesWithinTag(releaseName);
+      List<JiraIssue> jiraIssues = jiraClient.getIssueList(issueKeys);
+
+      ReleaseNotesWriter releaseNotesWriter = new ReleaseNotesWriter(format, ApplicationConstants.CONST_CHANGELOG_SECTIONS);
+      try (RunMetrics.Timer ignored = runMetrics.time(RunMetrics.PHASE_RENDER)) {
+        if (output != null) {
+          Writer writer = output.apply(format);
+          releaseNotesWriter.write(releaseName, previousReleaseName, jiraIssues, writer);
+          writer.flush();
+        } else if (outputFile == null) {
+          //stdout is not ours to close
+          Writer writer = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+          releaseNotesWriter.write(releaseName, previousReleaseName, jiraIssues, writer);
+          writer.flush();
+        } else {
+          Path outputPath = Path.of(outputFile);
+          if (outputPath.toAbsolutePath().getParent() != null) {
+            Files.createDirectories(outputPath.toAbsolutePath().getParent());
+          }
+          try (Writer writer = Files.newBufferedWriter(outputPath, StandardCharsets.UTF_8)) {
+            releaseNotesWriter.write(releaseName, previousReleaseName, jiraIssues, writer);
+          }
+          log.info("Release notes of [{}] issues written to [{}]...", jiraIssues.size(), outputPath);
+        }
+      }
+    } catch (IOException e) {
+      log.error("Unable to generate the release notes due to: [{}]", e.getMessage(), e);
+      throw new RuntimeException(e);
+    } finally {
+      gitClient.close();
+      //a shared client is saved by its owner
+      if (this.sharedJiraClient == null) {
+        jiraClient.saveIssueCache();
+      }
+    }
+
+    log.info("Release Notes Generation Complete.");
   }
 }
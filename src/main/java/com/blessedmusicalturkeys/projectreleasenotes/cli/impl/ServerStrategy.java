@@ -0,0 +1,75 @@
+package com.blessedmusicalturkeys.projectreleasenotes.cli.impl;
+
+import com.blessedmusicalturkeys.projectreleasenotes.cli.CLIStrategy;
+import com.blessedmusicalturkeys.projectreleasenotes.constants.ApplicationConstants;
+import com.blessedmusicalturkeys.projectreleasenotes.domain.RunConfiguration;
+import com.blessedmusicalturkeys.projectreleasenotes.server.ReleaseNotesServer;
+import com.blessedmusicalturkeys.projectreleasenotes.utilities.BatchManifest;
+import com.blessedmusicalturkeys.projectreleasenotes.utilities.JiraClient;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URISyntaxException;
+import java.nio.file.Path;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Starts the long-running server that serves changelog, tag and release notes requests over HTTP
+ *
+ * @author Timothy Stratton
+ */
+@Slf4j
+public class ServerStrategy implements CLIStrategy {
+
+  @Override
+  public boolean canHandle(String... inputArguments) {
+    return CLIStrategy.globalCanHandleRequestChecker("-s", "--server", inputArguments);
+  }
+
+  @Override
+  public void handleRequest(String... inputArgument) {
+    log.info("Server request received...");
+
+    int port = ApplicationConstants.CONST_SERVER_PORT;
+    String manifestFile = null;
+    for (int i = 1; i < inputArgument.length; i++) {
+      if (inputArgument[i].startsWith("--port=")) {
+        port = parsePort(inputArgument[i].substring("--port=".length()));
+      } else if (inputArgument[i].startsWith("--manifest=")) {
+        manifestFile = inputArgument[i].split("--manifest=")[1];
+      } else {
+        log.info("Unsupported Operation requested. Rerun with `--help` option to see available operations");
+        throw new RuntimeException("Unsupported Operation");
+      }
+    }
+
+    ReleaseNotesServer server;
+    try {
+      List<RunConfiguration> repositories = manifestFile == null
+          ? List.of(RunConfiguration.fromEnvironment())
+          : BatchManifest.load(Path.of(manifestFile));
+
+      server = new ReleaseNotesServer(new InetSocketAddress(ApplicationConstants.CONST_SERVER_HOST, port),
+          ApplicationConstants.CONST_SERVER_THREADS, new JiraClient(), repositories);
+      server.start();
+    } catch (IOException | URISyntaxException e) {
+      log.error("Unable to start the server due to: [{}]", e.getMessage(), e);
+      throw new RuntimeException(e);
+    }
+
+    Runtime.getRuntime().addShutdownHook(new Thread(server::stop));
+  }
+
+  private static int parsePort(String port) {
+    try {
+      int parsedPort = Integer.parseInt(port);
+      if (parsedPort >= 0 && parsedPort <= 65535) {
+        return parsedPort;
+      }
+    } catch (NumberFormatException e) {
+      //reported below
+    }
+    log.info("`--port` must be a number between 0 and 65535, was [{}]", port);
+    throw new RuntimeException("Unsupported Operation");
+  }
+}
@@ -1,14 +1,39 @@
 package com.blessedmusicalturkeys.projectreleasenotes.cli.impl;
 
 import com.blessedmusicalturkeys.projectreleasenotes.cli.CLIStrategy;
+import com.blessedmusicalturkeys.projectreleasenotes.domain.RunConfiguration;
+import com.blessedmusicalturkeys.projectreleasenotes.utilities.JGit;
+import com.blessedmusicalturkeys.projectreleasenotes.utilities.ReleaseTagIndex;
+import com.blessedmusicalturkeys.projectreleasenotes.utilities.ReleaseVersioning;
+import com.blessedmusicalturkeys.projectreleasenotes.utilities.RunMetrics;
+import java.io.IOException;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.jgit.api.errors.GitAPIException;
 
 /**
- * Tags the configured project and pushes the tag to origin
+ * Tags the configured project and pushes the tag to origin. Only the tip of the trunk is fetched, into a bare
+ * repository, and the tags of the remote are listed without fetching them, so tagging costs a couple of round
+ * trips however large the repository is.
  *
  * @author Timothy Stratton
  */
+@Slf4j
 public class TagStrategy implements CLIStrategy {
 
+  private RunConfiguration configuration;
+
+  /**
+   * The configuration is read from the environment once a request is handled
+   */
+  public TagStrategy() {
+    this(null);
+  }
+
+  public TagStrategy(RunConfiguration configuration) {
+    this.configuration = configuration;
+  }
+
   @Override
   public boolean canHandle(String... inputArguments) {
 
@@ -17,6 +42,67 @@ public class TagStrategy implements CLIStrategy {
 
   @Override
   public void handleRequest(String... inputArgument) {
-    System.out.println("Not yet implemented");
+    log.info("Tag request received...");
+
+    if (inputArgument.length != 2) {
+      log.info("Unsupported Operation requested. Rerun with `--help` option to see available operations");
+      throw new RuntimeException("Unsupported Operation");
+    }
+
+    if (this.configuration == null) {
+      this.configuration = RunConfiguration.fromEnvironment();
+    }
+
+    RunMetrics runMetrics = RunMetrics.fromEnvironment("tag", this.configuration.name());
+    boolean successful = false;
+    try {
+      tagAndPush(runMetrics, inputArgument[1]);
+      successful = true;
+    } finally {
+      runMetrics.publish(successful);
+    }
+  }
+
+  private void tagAndPush(RunMetrics runMetrics, String tagArgument) {
+    JGit gitClient;
+
+    log.info("Initializing the System...");
+    try (RunMetrics.Timer ignored = runMetrics.time(RunMetrics.PHASE_GIT_OPEN)) {
+      gitClient = JGit.openTrunkTip(this.configuration);
+    } catch (GitAPIException | IOException e) {
+      log.error("Initialization exception: [{}]", e.getMessage(), e);
+      throw new RuntimeException(e);
+    }
+    gitClient.setRunMetrics(runMetrics);
+
+    try {
+      List<String> tags;
+      try (RunMetrics.Timer ignored = runMetrics.time(RunMetrics.PHASE_TAG_SCAN)) {
+        tags = gitClient.listRemoteTags();
+      }
+      runMetrics.increment(RunMetrics.TAGS_SCANNED, tags.size());
+
+      String tagName;
+      if (tagArgument.startsWith("--incrementVersion=")) {
+        String latestRelease = ReleaseTagIndex.of(tags).getLatestRelease();
+        tagName = ReleaseVersioning.nextReleaseName(latestRelease, tagArgument.split("--incrementVersion=")[1]);
+        log.info("Incrementing [{}] to [{}]...", latestRelease, tagName);
+      } else {
+        tagName = tagArgument;
+      }
+
+      if (tags.contains(tagName)) {
+        throw new RuntimeException("Tag [" + tagName + "] already exists");
+      }
+
+      gitClient.tagTrunkTipAndPush(tagName);
+    } catch (GitAPIException | IOException e) {
+      log.error("Unable to tag the trunk due to: [{}]", e.getMessage(), e);
+      throw new RuntimeException(e);
+    } finally {
+      gitClient.close();
+    }
+
+    log.info("Tagging Complete.");
   }
 }
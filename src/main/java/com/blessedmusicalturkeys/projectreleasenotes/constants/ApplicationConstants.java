@@ -1,6 +1,10 @@
 package com.blessedmusicalturkeys.projectreleasenotes.constants;
 
+import com.blessedmusicalturkeys.projectreleasenotes.utilities.ChangelogRenderer;
 import com.blessedmusicalturkeys.projectreleasenotes.utilities.EnvironmentVariables;
+import com.blessedmusicalturkeys.projectreleasenotes.utilities.IssueKeyExtractor;
+import java.util.List;
+import java.util.Map;
 
 public class ApplicationConstants {
   public static final String CONST_GIT_REPOSITORY_URL = EnvironmentVariables.getString("GIT_REPO_URL");
@@ -8,11 +12,40 @@ public class ApplicationConstants {
   public static final String CONST_GIT_USERNAME = EnvironmentVariables.getString("GIT_USERNAME");
   public static final String CONST_GIT_PASSWORD = EnvironmentVariables.getString("GIT_PASSWORD");
   public static final String CONST_GIT_WORKING_TRUNK_TO_BRANCH_FROM = EnvironmentVariables.getString("GIT_WORKING_TRUNK");
+  public static final String CONST_GIT_WORKSPACE_MODE = EnvironmentVariables.getString("GIT_WORKSPACE_MODE",
+      GitWorkspaceMode.CLONE.name());
+  public static final String CONST_GIT_WORKSPACE_CACHE_DIR = EnvironmentVariables.getString("GIT_WORKSPACE_CACHE_DIR",
+      System.getProperty("java.io.tmpdir") + "/project-release-notes/git");
+  public static final Integer CONST_GIT_SHALLOW_DEPTH = EnvironmentVariables.getInt("GIT_SHALLOW_DEPTH", 200);
+  public static final Boolean CONST_GIT_IN_MEMORY_COMMIT = EnvironmentVariables.getBoolean("GIT_IN_MEMORY_COMMIT", false);
+  public static final Boolean CONST_GIT_CHANGELOG_MERGE_COMMIT = EnvironmentVariables.getBoolean("GIT_CHANGELOG_MERGE_COMMIT", true);
+  public static final List<String> CONST_GIT_BRANCH_PREFIXES = EnvironmentVariables.getList("GIT_BRANCH_PREFIXES",
+      IssueKeyExtractor.DEFAULT_BRANCH_PREFIXES);
+  public static final String CONST_GIT_COMMIT_INDEX_DIR = EnvironmentVariables.getString("GIT_COMMIT_INDEX_DIR");
 
   public static final String CONST_JIRA_BASE_URL = EnvironmentVariables.getString("JIRA_URL");
   public static final String CONST_JIRA_USER_NAME = EnvironmentVariables.getString("JIRA_SERVICE_ACCOUNT_USERNAME");
   public static final String CONST_JIRA_API_KEY = EnvironmentVariables.getString("JIRA_SERVICE_ACCOUNT_API_KEY");
   public static final String CONST_JIRA_PROJECT_KEY = EnvironmentVariables.getString("JIRA_PROJECT_KEY");
+  public static final List<String> CONST_JIRA_PROJECT_KEYS = EnvironmentVariables.getList("JIRA_PROJECT_KEY", List.of());
+  public static final Integer CONST_JIRA_FETCH_BATCH_SIZE = EnvironmentVariables.getInt("JIRA_FETCH_BATCH_SIZE", 50);
+  public static final Integer CONST_JIRA_FETCH_PARALLELISM = EnvironmentVariables.getInt("JIRA_FETCH_PARALLELISM", 4);
+  public static final Integer CONST_JIRA_MAX_RETRIES = EnvironmentVariables.getInt("JIRA_MAX_RETRIES", 5);
+  public static final String CONST_JIRA_ISSUE_CACHE_DIR = EnvironmentVariables.getString("JIRA_ISSUE_CACHE_DIR");
+  public static final Integer CONST_JIRA_ISSUE_CACHE_MAX_ENTRIES = EnvironmentVariables.getInt("JIRA_ISSUE_CACHE_MAX_ENTRIES", 10000);
+  public static final Integer CONST_JIRA_ISSUE_CACHE_TTL_HOURS = EnvironmentVariables.getInt("JIRA_ISSUE_CACHE_TTL_HOURS", 24);
 
   public static final Boolean CONST_PREPEND_TO_CHANGELOG = EnvironmentVariables.getBoolean("PREPEND_TO_CHANGELOG");
+  public static final Map<String, String> CONST_CHANGELOG_SECTIONS = EnvironmentVariables.getMap("CHANGELOG_SECTIONS",
+      ChangelogRenderer.DEFAULT_SECTIONS_BY_ISSUE_TYPE);
+  public static final Integer CONST_CHANGELOG_PARALLELISM = EnvironmentVariables.getInt("CHANGELOG_PARALLELISM", 4);
+
+  public static final Integer CONST_BATCH_PARALLELISM = EnvironmentVariables.getInt("BATCH_PARALLELISM", 4);
+
+  public static final String CONST_SERVER_HOST = EnvironmentVariables.getString("SERVER_HOST", "127.0.0.1");
+  public static final Integer CONST_SERVER_PORT = EnvironmentVariables.getInt("SERVER_PORT", 8080);
+  public static final Integer CONST_SERVER_THREADS = EnvironmentVariables.getInt("SERVER_THREADS", 4);
+
+  public static final String CONST_METRICS_REPORT_FILE = EnvironmentVariables.getString("METRICS_REPORT_FILE", null);
+  public static final String CONST_METRICS_PROMETHEUS_FILE = EnvironmentVariables.getString("METRICS_PROMETHEUS_FILE", null);
 }
@@ -0,0 +1,22 @@
+package com.blessedmusicalturkeys.projectreleasenotes.constants;
+
+import java.util.Arrays;
+
+public enum GitWorkspaceMode {
+  CLONE, MIRROR, SHALLOW;
+
+  /**
+   * Parsed when a workspace is opened rather than along with the other constants, so a typo fails the run that
+   * needs it with a message instead of every run, `--help` included, while the constants are initialized
+   *
+   * @return the configured `GIT_WORKSPACE_MODE`
+   */
+  public static GitWorkspaceMode fromEnvironment() {
+    String mode = ApplicationConstants.CONST_GIT_WORKSPACE_MODE;
+    return Arrays.stream(values())
+        .filter(value -> value.name().equalsIgnoreCase(mode.trim()))
+        .findFirst()
+        .orElseThrow(() -> new IllegalArgumentException("Unsupported GIT_WORKSPACE_MODE [" + mode + "], must be one of "
+            + Arrays.toString(values())));
+  }
+}
@@ -0,0 +1,17 @@
+package com.blessedmusicalturkeys.projectreleasenotes.constants;
+
+public enum ReleaseNotesFormat {
+  MARKDOWN("text/markdown; charset=utf-8"),
+  JSON("application/json; charset=utf-8"),
+  HTML("text/html; charset=utf-8");
+
+  private final String contentType;
+
+  ReleaseNotesFormat(String contentType) {
+    this.contentType = contentType;
+  }
+
+  public String getContentType() {
+    return this.contentType;
+  }
+}
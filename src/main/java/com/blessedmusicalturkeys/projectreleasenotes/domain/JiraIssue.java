@@ -0,0 +1,12 @@
+package com.blessedmusicalturkeys.projectreleasenotes.domain;
+
+import java.time.Instant;
+
+/**
+ * The parts of a JIRA issue that make it into the generated changelogs/release notes
+ *
+ * @author Timothy Stratton
+ */
+public record JiraIssue(String key, String type, String summary, String description, Instant updated) {
+
+}
@@ -0,0 +1,97 @@
+package com.blessedmusicalturkeys.projectreleasenotes.domain;
+
+import com.blessedmusicalturkeys.projectreleasenotes.constants.SemanticVersion;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A tag parsed as a semantic version, e.g. `1.2.3`, `v1.2.3`, `release-1.2.3-rc.1` or `1.2.3+build.7`.
+ * Versions are ordered by semantic versioning precedence, where build metadata is ignored, and ties are
+ * broken by the tag name so that no two tags compare equal.
+ *
+ * @author Timothy Stratton
+ */
+public record ReleaseVersion(String tagName, String prefix, long major, long minor, long patch, String preRelease,
+    String buildMetadata) implements Comparable<ReleaseVersion> {
+
+  private static final Pattern SEMANTIC_VERSION = Pattern.compile(
+      "^([A-Za-z_/-]*)([0-9]+)\\.([0-9]+)\\.([0-9]+)(?:-([0-9A-Za-z-]+(?:\\.[0-9A-Za-z-]+)*))?(?:\\+([0-9A-Za-z-]+(?:\\.[0-9A-Za-z-]+)*))?$");
+
+  /**
+   * @return the parsed version, or null if the tag is not a semantic version
+   */
+  public static ReleaseVersion parse(String tagName) {
+    Matcher matcher = SEMANTIC_VERSION.matcher(tagName);
+    if (!matcher.matches()) {
+      return null;
+    }
+    try {
+      return new ReleaseVersion(tagName, matcher.group(1), Long.parseLong(matcher.group(2)),
+          Long.parseLong(matcher.group(3)), Long.parseLong(matcher.group(4)), matcher.group(5), matcher.group(6));
+    } catch (NumberFormatException e) {
+      return null; //more digits than a long holds, not a version anyone released
+    }
+  }
+
+  public boolean isPreRelease() {
+    return this.preRelease != null;
+  }
+
+  /**
+   * @return the tag name of the next version, keeping this version's prefix and dropping any pre-release and
+   * build metadata
+   */
+  public String increment(SemanticVersion incrementVersionBy) {
+    return switch (incrementVersionBy) {
+      case MAJOR -> this.prefix + (this.major + 1) + ".0.0";
+      case MINOR -> this.prefix + this.major + "." + (this.minor + 1) + ".0";
+      case PATCH -> this.prefix + this.major + "." + this.minor + "." + (this.patch + 1);
+    };
+  }
+
+  @Override
+  public int compareTo(ReleaseVersion other) {
+    int comparison = Long.compare(this.major, other.major);
+    if (comparison == 0) {
+      comparison = Long.compare(this.minor, other.minor);
+    }
+    if (comparison == 0) {
+      comparison = Long.compare(this.patch, other.patch);
+    }
+    if (comparison == 0) {
+      comparison = comparePreReleases(this.preRelease, other.preRelease);
+    }
+    return comparison != 0 ? comparison : this.tagName.compareTo(other.tagName);
+  }
+
+  //a release ranks above its pre-releases, whose identifiers compare numerically when both are numbers
+  private static int comparePreReleases(String preRelease, String otherPreRelease) {
+    if (preRelease == null || otherPreRelease == null) {
+      return preRelease == null ? (otherPreRelease == null ? 0 : 1) : -1;
+    }
+
+    String[] identifiers = preRelease.split("\\.");
+    String[] otherIdentifiers = otherPreRelease.split("\\.");
+    for (int i = 0; i < Math.min(identifiers.length, otherIdentifiers.length); i++) {
+      boolean numeric = identifiers[i].chars().allMatch(Character::isDigit);
+      boolean otherNumeric = otherIdentifiers[i].chars().allMatch(Character::isDigit);
+
+      int comparison;
+      if (numeric && otherNumeric) {
+        String number = identifiers[i].replaceFirst("^0+(?=.)", "");
+        String otherNumber = otherIdentifiers[i].replaceFirst("^0+(?=.)", "");
+        comparison = number.length() != otherNumber.length()
+            ? Integer.compare(number.length(), otherNumber.length())
+            : number.compareTo(otherNumber);
+      } else if (numeric || otherNumeric) {
+        comparison = numeric ? -1 : 1;
+      } else {
+        comparison = identifiers[i].compareTo(otherIdentifiers[i]);
+      }
+      if (comparison != 0) {
+        return comparison;
+      }
+    }
+    return Integer.compare(identifiers.length, otherIdentifiers.length);
+  }
+}
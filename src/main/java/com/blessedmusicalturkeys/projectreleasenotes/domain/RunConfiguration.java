@@ -0,0 +1,69 @@
+package com.blessedmusicalturkeys.projectreleasenotes.domain;
+
+import com.blessedmusicalturkeys.projectreleasenotes.constants.ApplicationConstants;
+import java.util.List;
+
+/**
+ * Everything a run needs to know about the repository it works on. A single run takes it from the
+ * environment, a batch run or the server has one per repository of the manifest.
+ *
+ * @param name           short name of the repository, used in logs, metrics and server requests
+ * @param privateKey     the decoded SSH private key, or null when using HTTPS credentials
+ * @param arguments      the command line arguments to run with in a batch, empty to use the batch's own
+ *
+ * @author Timothy Stratton
+ */
+public record RunConfiguration(String name, String repositoryUrl, String privateKey, String username, String password,
+    String workingTrunk, List<String> projectKeys, List<String> branchPrefixes, boolean prependToChangelog,
+    List<String> arguments) {
+
+  public static RunConfiguration fromEnvironment() {
+    return new RunConfiguration(nameOf(ApplicationConstants.CONST_GIT_REPOSITORY_URL),
+        ApplicationConstants.CONST_GIT_REPOSITORY_URL,
+        ApplicationConstants.CONST_GIT_REPOSITORY_PRIVATE_KEY,
+        ApplicationConstants.CONST_GIT_USERNAME,
+        ApplicationConstants.CONST_GIT_PASSWORD,
+        ApplicationConstants.CONST_GIT_WORKING_TRUNK_TO_BRANCH_FROM,
+        ApplicationConstants.CONST_JIRA_PROJECT_KEYS,
+        ApplicationConstants.CONST_GIT_BRANCH_PREFIXES,
+        ApplicationConstants.CONST_PREPEND_TO_CHANGELOG,
+        List.of());
+  }
+
+  /**
+   * @return the repository name of the URL, e.g. `billing` for `git@bitbucket.org:team/billing.git`
+   */
+  public static String nameOf(String repositoryUrl) {
+    if (repositoryUrl == null || repositoryUrl.isBlank()) {
+      return "default";
+    }
+    String name = repositoryUrl.replaceAll("/+$", "");
+    name = name.substring(Math.max(name.lastIndexOf('/'), name.lastIndexOf(':')) + 1);
+    return name.endsWith(".git") ? name.substring(0, name.length() - 4) : name;
+  }
+
+  public boolean isSshConnection() {
+    //ssh connection starts with `git@`
+    return this.privateKey != null && !this.privateKey.isEmpty() && this.repositoryUrl != null
+        && this.repositoryUrl.startsWith("git@");
+  }
+
+  public boolean isHttpsConnection() {
+    return this.username != null && this.password != null && this.repositoryUrl != null
+        && this.repositoryUrl.startsWith("https://");
+  }
+
+  /**
+   * A local repository, e.g. a bare repository standing in for the remote during a load test, needs no credentials
+   */
+  public boolean isLocalConnection() {
+    return this.repositoryUrl != null && this.repositoryUrl.startsWith("file://");
+  }
+
+  //keeps the credentials out of the logs
+  @Override
+  public String toString() {
+    return "RunConfiguration[name=" + this.name + ", repositoryUrl=" + this.repositoryUrl + ", workingTrunk="
+        + this.workingTrunk + ", projectKeys=" + this.projectKeys + "]";
+  }
+}
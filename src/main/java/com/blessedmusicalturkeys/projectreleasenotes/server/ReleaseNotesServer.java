@@ -0,0 +1,219 @@
+package com.blessedmusicalturkeys.projectreleasenotes.server;
+
+import com.blessedmusicalturkeys.projectreleasenotes.cli.CLIStrategy;
+import com.blessedmusicalturkeys.projectreleasenotes.cli.impl.ChangelogStrategy;
+import com.blessedmusicalturkeys.projectreleasenotes.cli.impl.ReleaseNotesStrategy;
+import com.blessedmusicalturkeys.projectreleasenotes.cli.impl.TagStrategy;
+import com.blessedmusicalturkeys.projectreleasenotes.constants.GitWorkspaceMode;
+import com.blessedmusicalturkeys.projectreleasenotes.constants.ReleaseNotesFormat;
+import com.blessedmusicalturkeys.projectreleasenotes.domain.RunConfiguration;
+import com.blessedmusicalturkeys.projectreleasenotes.utilities.JiraClient;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Long-running HTTP front end to the CLI strategies. The JVM, the JIRA client and its issue cache stay warm
+ * between requests and every request works from the persistent git mirror, so a request only pays for an
+ * incremental fetch instead of a JVM start and a full clone.
+ *
+ * `POST /changelog`, `POST /tag` and `POST /release-notes` run the matching strategy, with the request body holding
+ * the remaining command line arguments, e.g. `--incrementVersion=PATCH`, and the `repository` query parameter naming
+ * the repository when the server knows more than one. Requests for different repositories run concurrently, while
+ * a request for a repository that is already busy is answered with a `409` straight away, so it never holds a request
+ * thread that other repositories could use. `/release-notes` answers with the notes themselves, in the
+ * content type of the requested `--format`, rather than writing them to stdout or a file. The notes are streamed
+ * with chunked transfer encoding as they are rendered, so a failure while rendering them cuts the body short instead
+ * of turning into a `500`.
+ *
+ * @author Timothy Stratton
+ */
+@Slf4j
+public class ReleaseNotesServer {
+
+  private static final Map<String, String> COMMAND_FLAGS = Map.of(
+      "/changelog", "--changelog",
+      "/tag", "--tag",
+      "/release-notes", "--release-notes");
+
+  private final InetSocketAddress address;
+  private final int threads;
+  private final JiraClient jiraClient;
+  private final Map<String, RunConfiguration> repositories;
+  private final Map<String, ReentrantLock> repositoryLocks = new ConcurrentHashMap<>();
+  private HttpServer httpServer;
+  private ExecutorService executor;
+
+  /**
+   * @param repositories the repositories requests may work on, by name
+   */
+  public ReleaseNotesServer(InetSocketAddress address, int threads, JiraClient jiraClient,
+      List<RunConfiguration> repositories) {
+    this.address = address;
+    this.threads = threads;
+    this.jiraClient = jiraClient;
+    this.repositories = new LinkedHashMap<>();
+    repositories.forEach(repository -> this.repositories.put(repository.name(), repository));
+  }
+
+  public void start() throws IOException {
+    this.executor = Executors.newFixedThreadPool(Math.max(this.threads, 1));
+    this.httpServer = HttpServer.create(this.address, 0);
+    this.httpServer.createContext("/health", exchange -> respond(exchange, 200, "OK"));
+    this.httpServer.createContext("/", this::handle);
+    this.httpServer.setExecutor(this.executor);
+    this.httpServer.start();
+
+    log.info("Listening on [{}] with [{}] request threads...", this.httpServer.getAddress(), this.threads);
+  }
+
+  public void stop() {
+    log.info("Stopping the server...");
+    this.httpServer.stop(5);
+    this.executor.shutdown();
+  }
+
+  private void handle(HttpExchange exchange) throws IOException {
+    String commandFlag = COMMAND_FLAGS.get(exchange.getRequestURI().getPath());
+    if (commandFlag == null) {
+      respond(exchange, 404, "Unknown command, use one of " + COMMAND_FLAGS.keySet());
+      return;
+    }
+    if (!"POST".equals(exchange.getRequestMethod())) {
+      respond(exchange, 405, "Commands are run with POST");
+      return;
+    }
+
+    List<String> arguments = new ArrayList<>();
+    arguments.add(commandFlag);
+    try (InputStream body = exchange.getRequestBody()) {
+      String requestBody = new String(body.readAllBytes(), StandardCharsets.UTF_8).trim();
+      if (!requestBody.isEmpty()) {
+        arguments.addAll(Arrays.asList(requestBody.split("\\s+")));
+      }
+    }
+    String[] inputArguments = arguments.toArray(new String[0]);
+
+    RunConfiguration repository = getRepository(exchange.getRequestURI().getQuery());
+    if (repository == null) {
+      respond(exchange, 404, "Unknown repository, use ?repository=<one of " + this.repositories.keySet() + ">");
+      return;
+    }
+
+    CLIStrategy strategy = strategiesFor(repository).stream()
+        .filter(candidate -> candidate.canHandle(inputArguments))
+        .findFirst()
+        .orElse(null);
+    if (strategy == null) {
+      respond(exchange, 404, "No strategy handles " + arguments);
+      return;
+    }
+    //the server's disk is not the caller's
+    if (strategy instanceof ReleaseNotesStrategy
+        && arguments.stream().anyMatch(argument -> argument.startsWith("--output"))) {
+      respond(exchange, 400, "`--output` is not supported, the release notes are returned in the response");
+      return;
+    }
+
+    //two runs against one repository would race each other's tags and pushes
+    ReentrantLock repositoryLock = this.repositoryLocks.computeIfAbsent(String.valueOf(repository.repositoryUrl()),
+        repositoryUrl -> new ReentrantLock());
+    if (!repositoryLock.tryLock()) {
+      respond(exchange, 409, "A request for [" + repository.name() + "] is already running, retry once it is done");
+      return;
+    }
+    AtomicReference<Writer> streamedResponse = new AtomicReference<>();
+    try {
+      log.info("Serving {} for [{}]...", arguments, repository.name());
+      if (strategy instanceof ReleaseNotesStrategy releaseNotesStrategy) {
+        releaseNotesStrategy.handleRequest(format -> {
+          streamedResponse.set(streamResponse(exchange, format));
+          return streamedResponse.get();
+        }, inputArguments);
+        streamedResponse.get().close();
+      } else {
+        strategy.handleRequest(inputArguments);
+        respond(exchange, 200, "OK");
+      }
+    } catch (RuntimeException e) {
+      log.error("Request {} failed: [{}]", arguments, e.getMessage(), e);
+      if (streamedResponse.get() == null) {
+        respond(exchange, 500, "FAILED: " + e.getMessage());
+      } else {
+        //the 200 is already sent, the client is left with the notes written so far and the failure is only logged
+        exchange.close();
+      }
+    } finally {
+      repositoryLock.unlock();
+      this.jiraClient.saveIssueCache();
+    }
+  }
+
+  private RunConfiguration getRepository(String query) {
+    if (query != null) {
+      for (String parameter : query.split("&")) {
+        if (parameter.startsWith("repository=")) {
+          return this.repositories.get(URLDecoder.decode(parameter.substring("repository=".length()), StandardCharsets.UTF_8));
+        }
+      }
+    }
+    return this.repositories.size() == 1 ? this.repositories.values().iterator().next() : null;
+  }
+
+  //strategies are cheap to create and hold the repository they work on
+  private List<CLIStrategy> strategiesFor(RunConfiguration repository) {
+    List<CLIStrategy> strategies = new ArrayList<>();
+    strategies.add(new ChangelogStrategy(repository, GitWorkspaceMode.MIRROR, this.jiraClient));
+    strategies.add(new ReleaseNotesStrategy(repository, GitWorkspaceMode.MIRROR, this.jiraClient));
+    strategies.add(new TagStrategy(repository));
+    return strategies;
+  }
+
+  /**
+   * Sends the headers of a chunked response in the given format
+   *
+   * @return the writer of the response body
+   */
+  private static Writer streamResponse(HttpExchange exchange, ReleaseNotesFormat format) {
+    try {
+      exchange.getResponseHeaders().set("Content-Type", format.getContentType());
+      exchange.sendResponseHeaders(200, 0);
+      return new BufferedWriter(new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static void respond(HttpExchange exchange, int status, String message) throws IOException {
+    respond(exchange, status, "text/plain; charset=utf-8", message + "\n");
+  }
+
+  private static void respond(HttpExchange exchange, int status, String contentType, String body) throws IOException {
+    byte[] response = body.getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().set("Content-Type", contentType);
+    exchange.sendResponseHeaders(status, response.length);
+    try (OutputStream responseBody = exchange.getResponseBody()) {
+      responseBody.write(response);
+    }
+  }
+}
@@ -0,0 +1,135 @@
+package com.blessedmusicalturkeys.projectreleasenotes.utilities;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Bounds the requests in flight against a rate limited service and retries the throttled ones.
+ *
+ * The limit follows additive increase, multiplicative decrease: every successful request raises it by one request
+ * per window, up to the configured maximum, while a throttled request halves it and pauses every request for an
+ * exponentially growing, jittered backoff. Throttles of requests sent before the last decrease saw the old limit and
+ * do not halve it again, so a burst of throttles costs a single halving.
+ *
+ * @author Timothy Stratton
+ */
+@Slf4j
+public class AdaptiveConcurrencyLimiter {
+
+  private static final Duration BASE_BACKOFF = Duration.ofMillis(500);
+  private static final Duration MAX_BACKOFF = Duration.ofSeconds(30);
+
+  private final int maxLimit;
+  private final int maxRetries;
+  private final Predicate<RuntimeException> isThrottled;
+  private double limit;
+  private int inFlight;
+  private long pausedUntilNanos = System.nanoTime();
+  private int decreases;
+
+  /**
+   * @param maxLimit    the most requests in flight at once, which is also where the limit starts
+   * @param maxRetries  how often a throttled request is retried before giving up
+   * @param isThrottled whether a failed request was throttled and may be retried, any other failure is rethrown
+   */
+  public AdaptiveConcurrencyLimiter(int maxLimit, int maxRetries, Predicate<RuntimeException> isThrottled) {
+    this.maxLimit = Math.max(maxLimit, 1);
+    this.maxRetries = Math.max(maxRetries, 0);
+    this.isThrottled = isThrottled;
+    this.limit = this.maxLimit;
+  }
+
+  /**
+   * Sends the request once a slot is free, retrying it while it is throttled
+   *
+   * @throws RuntimeException the failure of the request as is, if it failed otherwise or was still throttled after
+   *                          all retries
+   */
+  public <T> T call(Supplier<T> request, RunMetrics runMetrics) {
+    for (int attempt = 0; ; attempt++) {
+      int decreasesAtStart = acquire();
+      T result;
+      try {
+        result = request.get();
+      } catch (RuntimeException e) {
+        if (!this.isThrottled.test(e)) {
+          release(decreasesAtStart, null);
+          throw e;
+        }
+
+        Duration backoff = backoff(attempt);
+        release(decreasesAtStart, backoff);
+        runMetrics.increment(RunMetrics.JIRA_THROTTLED);
+        if (attempt >= this.maxRetries) {
+          log.warn("Request still throttled after [{}] retries: [{}]", this.maxRetries, e.getMessage());
+          throw e;
+        }
+
+        runMetrics.increment(RunMetrics.JIRA_RETRIES);
+        log.info("Request throttled: [{}], retrying in [{}] ms with at most [{}] requests in flight...",
+            e.getMessage(), backoff.toMillis(), getLimit());
+        continue;
+      }
+
+      release(decreasesAtStart, null);
+      return result;
+    }
+  }
+
+  /**
+   * @return the number of requests currently allowed in flight
+   */
+  public synchronized int getLimit() {
+    return (int) this.limit;
+  }
+
+  private synchronized int acquire() {
+    try {
+      while (true) {
+        long pauseNanos = this.pausedUntilNanos - System.nanoTime();
+        if (pauseNanos > 0) {
+          TimeUnit.NANOSECONDS.timedWait(this, pauseNanos);
+        } else if (this.inFlight < (int) this.limit) {
+          this.inFlight++;
+          return this.decreases;
+        } else {
+          wait();
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    }
+  }
+
+  /**
+   * @param backoff how long to pause if the request was throttled, null otherwise
+   */
+  private synchronized void release(int decreasesAtStart, Duration backoff) {
+    this.inFlight--;
+
+    if (backoff == null) {
+      this.limit = Math.min(this.maxLimit, this.limit + 1 / this.limit);
+    } else {
+      if (decreasesAtStart == this.decreases) {
+        this.limit = Math.max(1, this.limit / 2);
+        this.decreases++;
+      }
+      this.pausedUntilNanos = Math.max(this.pausedUntilNanos, System.nanoTime() + backoff.toNanos());
+    }
+
+    notifyAll();
+  }
+
+  /**
+   * Exponential backoff with equal jitter, so the retries of concurrent requests do not line up
+   */
+  private static Duration backoff(int attempt) {
+    long ceilingMillis = Math.min(MAX_BACKOFF.toMillis(), BASE_BACKOFF.toMillis() << Math.min(attempt, 16));
+    return Duration.ofMillis(ceilingMillis / 2 + ThreadLocalRandom.current().nextLong(ceilingMillis / 2 + 1));
+  }
+}
@@ -0,0 +1,106 @@
+package com.blessedmusicalturkeys.projectreleasenotes.utilities;
+
+import com.blessedmusicalturkeys.projectreleasenotes.constants.ApplicationConstants;
+import com.blessedmusicalturkeys.projectreleasenotes.domain.RunConfiguration;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Reads the repositories of a batch run from a properties file, one group of `<name>.<setting>` keys per
+ * repository, e.g.
+ *
+ * <pre>
+ * billing.url=git@bitbucket.org:team/billing.git
+ * billing.trunk=main
+ * billing.projectKeys=BILL
+ * billing.privateKeyEnv=BILLING_GIT_PRIVATE_KEY
+ * billing.args=--incrementVersion=MINOR
+ * </pre>
+ *
+ * Secrets are never part of the manifest, `privateKeyEnv` and `passwordEnv` name the environment variables
+ * holding them. Any setting that is left out falls back to the matching environment variable of a single run.
+ *
+ * @author Timothy Stratton
+ */
+public class BatchManifest {
+
+  private static final Set<String> SETTINGS = Set.of("url", "trunk", "projectKeys", "branchPrefixes", "username",
+      "passwordEnv", "privateKeyEnv", "prependToChangelog", "args");
+
+  private BatchManifest() {
+  }
+
+  public static List<RunConfiguration> load(Path manifestFile) throws IOException {
+    Properties properties = new Properties();
+    try (Reader reader = Files.newBufferedReader(manifestFile, StandardCharsets.UTF_8)) {
+      properties.load(reader);
+    }
+
+    Set<String> names = new TreeSet<>();
+    for (String key : properties.stringPropertyNames()) {
+      int separator = key.lastIndexOf('.');
+      if (separator <= 0 || !SETTINGS.contains(key.substring(separator + 1))) {
+        throw new IllegalArgumentException("Unknown manifest setting [" + key + "], expected <name>.<one of " + SETTINGS + ">");
+      }
+      names.add(key.substring(0, separator));
+    }
+
+    List<RunConfiguration> configurations = new ArrayList<>();
+    Set<String> repositoryUrls = new HashSet<>();
+    for (String name : names) {
+      RunConfiguration configuration = toConfiguration(name, properties);
+      if (configuration.repositoryUrl() == null) {
+        throw new IllegalArgumentException("Repository [" + name + "] has no url");
+      }
+      //two runs on one repository would race each other's tags and pushes
+      if (!repositoryUrls.add(configuration.repositoryUrl())) {
+        throw new IllegalArgumentException("Repository [" + configuration.repositoryUrl() + "] is listed more than once");
+      }
+      configurations.add(configuration);
+    }
+    return configurations;
+  }
+
+  private static RunConfiguration toConfiguration(String name, Properties properties) {
+    String privateKeyEnv = properties.getProperty(name + ".privateKeyEnv");
+    String passwordEnv = properties.getProperty(name + ".passwordEnv");
+    String prependToChangelog = properties.getProperty(name + ".prependToChangelog");
+
+    return new RunConfiguration(name,
+        properties.getProperty(name + ".url"),
+        privateKeyEnv == null ? ApplicationConstants.CONST_GIT_REPOSITORY_PRIVATE_KEY : decode(System.getenv(privateKeyEnv)),
+        properties.getProperty(name + ".username", ApplicationConstants.CONST_GIT_USERNAME),
+        passwordEnv == null ? ApplicationConstants.CONST_GIT_PASSWORD : System.getenv(passwordEnv),
+        properties.getProperty(name + ".trunk", ApplicationConstants.CONST_GIT_WORKING_TRUNK_TO_BRANCH_FROM),
+        listOf(properties.getProperty(name + ".projectKeys"), ApplicationConstants.CONST_JIRA_PROJECT_KEYS),
+        listOf(properties.getProperty(name + ".branchPrefixes"), ApplicationConstants.CONST_GIT_BRANCH_PREFIXES),
+        prependToChangelog == null ? ApplicationConstants.CONST_PREPEND_TO_CHANGELOG : Boolean.parseBoolean(prependToChangelog.trim()),
+        listOf(properties.getProperty(name + ".args"), List.of(), "\\s+"));
+  }
+
+  private static String decode(String encodedValue) {
+    return encodedValue == null ? null : new String(Base64.getDecoder().decode(encodedValue));
+  }
+
+  private static List<String> listOf(String value, List<String> defaultValues) {
+    return listOf(value, defaultValues, ",");
+  }
+
+  private static List<String> listOf(String value, List<String> defaultValues, String separatorRegex) {
+    if (value == null || value.isBlank()) {
+      return defaultValues;
+    }
+    return Arrays.stream(value.trim().split(separatorRegex)).map(String::trim).filter(item -> !item.isEmpty()).toList();
+  }
+}
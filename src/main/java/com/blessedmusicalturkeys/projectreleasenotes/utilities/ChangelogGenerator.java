@@ -1,14 +1,20 @@
 package com.blessedmusicalturkeys.projectreleasenotes.utilities;
 
-import com.atlassian.jira.rest.client.api.domain.Issue;
 import com.blessedmusicalturkeys.projectreleasenotes.constants.ApplicationConstants;
+import com.blessedmusicalturkeys.projectreleasenotes.domain.JiraIssue;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import net.steppschuh.markdowngenerator.rule.HorizontalRule;
-import net.steppschuh.markdowngenerator.text.heading.Heading;
 
 /**
  * Generates the Changelog for a given List of JIRA issues
@@ -17,60 +23,188 @@ import net.steppschuh.markdowngenerator.text.heading.Heading;
  */
 public class ChangelogGenerator {
 
-  public void generateChangelogFromExisting(File repoDir, String releaseName, List<Issue> issues) throws IOException {
-    StringBuilder changelogBuilder = new StringBuilder();
+  public static final String CHANGELOG_DIRECTORY_NAME = "changelog";
+  public static final String CHANGELOG_FILE_NAME = "changelog.md";
 
-    changelogBuilder.append(new Heading("Release " + releaseName, 1)).append("\n");
+  private static final String SECTION_SEPARATOR = new HorizontalRule(20, HorizontalRule.ASTERISK) + "\n\n";
 
-    //Story tickets
-    changelogBuilder.append(new Heading("Stories Completed", 2)).append("\n");
-    for (Issue issue : issues) {
-      if (issue.getIssueType().getName().equals("Story")) {
-        changelogBuilder.append(new Heading(issue.getKey(), 3)).append("\n");
-        changelogBuilder.append(new Heading(issue.getSummary(), 4)).append("\n");
-        changelogBuilder.append(new Heading(issue.getDescription(), 5)).append("\n\n");
-      }
+  private final ChangelogRenderer changelogRenderer;
+  private final boolean prependToChangelog;
+  private RunMetrics runMetrics = RunMetrics.DISABLED;
+
+  public ChangelogGenerator() {
+    this(ApplicationConstants.CONST_PREPEND_TO_CHANGELOG);
+  }
+
+  public ChangelogGenerator(boolean prependToChangelog) {
+    this(new ChangelogRenderer(ApplicationConstants.CONST_CHANGELOG_SECTIONS), prependToChangelog);
+  }
+
+  public ChangelogGenerator(ChangelogRenderer changelogRenderer, boolean prependToChangelog) {
+    this.changelogRenderer = changelogRenderer;
+    this.prependToChangelog = prependToChangelog;
+  }
+
+  public void setRunMetrics(RunMetrics runMetrics) {
+    this.runMetrics = runMetrics;
+  }
+
+  public void generateChangelogFromExisting(File repoDir, String releaseName, List<JiraIssue> issues) throws IOException {
+    String changelogSection = renderChangelogSection(releaseName, issues);
+    boolean prepend = this.prependToChangelog;
+
+    Path changelogDirectory = getChangelogDirectory(repoDir);
+    ChangelogManifest manifest = ChangelogManifest.load(changelogDirectory, changelogDirectory.resolve(CHANGELOG_FILE_NAME));
+
+    writeChangeLog(repoDir, changelogSection, prepend);
+
+    //keep the manifest pointing at the right bytes so the next full generation can reuse the sections
+    Path manifestFile = changelogDirectory.resolve(ChangelogManifest.MANIFEST_FILE_NAME);
+    if (prepend && Files.exists(manifestFile)) {
+      byte[] sectionBytes = changelogSection.getBytes(StandardCharsets.UTF_8);
+      manifest.withPrependedSection(releaseName, ChangelogManifest.sha256(sectionBytes), sectionBytes.length,
+          SECTION_SEPARATOR.getBytes(StandardCharsets.UTF_8).length).save(changelogDirectory);
+    } else {
+      Files.deleteIfExists(manifestFile);
+    }
+  }
+
+  /**
+   * @return see {@link ChangelogRenderer#getConfigurationHash()}
+   */
+  public String getConfigurationHash() {
+    return this.changelogRenderer.getConfigurationHash();
+  }
+
+  public String renderChangelogSection(String releaseName, List<JiraIssue> issues) {
+    try (RunMetrics.Timer ignored = this.runMetrics.time(RunMetrics.PHASE_RENDER)) {
+      return this.changelogRenderer.render(releaseName, issues);
     }
+  }
+
+  /**
+   * Regenerates the whole changelog, newest tag first. Tags with a freshly rendered section are written
+   * from {@code renderedSections}, every other tag's section is copied verbatim from the existing changelog
+   * as recorded by the manifest.
+   *
+   * @param tagCommitIds      the commit each tag currently points at
+   * @param previousCommitIds the commit the previous tag of each tag points at, absent for a range from the first commit
+   */
+  public void writeFullChangelog(File repoDir, List<String> tagsNewestFirst, Map<String, String> tagCommitIds,
+      Map<String, String> previousCommitIds, ChangelogManifest existingManifest, Map<String, String> renderedSections)
+      throws IOException {
+    Path changelogDirectory = getChangelogDirectory(repoDir);
+    Path changelogFile = changelogDirectory.resolve(CHANGELOG_FILE_NAME);
+    Path tempFile = Files.createTempFile(changelogDirectory, "changelog", ".md.tmp");
+    List<ChangelogManifest.Section> sections = new ArrayList<>();
 
-    //Bug Tickets
-    changelogBuilder.append(new Heading("Bugs Fixed", 2)).append("\n");
-    for (Issue issue : issues) {
-      if (issue.getIssueType().getName().equals("Bug")) {
-        changelogBuilder.append(new Heading(issue.getKey(), 3)).append("\n");
-        changelogBuilder.append(new Heading(issue.getSummary(), 4)).append("\n");
-        changelogBuilder.append(new Heading(issue.getDescription(), 5)).append("\n\n");
+    try (RunMetrics.Timer ignored = this.runMetrics.time(RunMetrics.PHASE_CHANGELOG_WRITE)) {
+      try (FileChannel target = FileChannel.open(tempFile, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+          FileChannel source = Files.exists(changelogFile) ? FileChannel.open(changelogFile, StandardOpenOption.READ) : null) {
+        long offset = 0;
+
+        for (String tag : tagsNewestFirst) {
+          if (!sections.isEmpty()) {
+            offset += writeFully(target, SECTION_SEPARATOR);
+          }
+
+          String commitId = tagCommitIds.get(tag);
+          String previousCommitId = previousCommitIds.get(tag);
+          String renderedSection = renderedSections.get(tag);
+          ChangelogManifest.Section reusableSection = existingManifest.getReusableSection(tag, commitId,
+              previousCommitId, getConfigurationHash());
+
+          if (renderedSection != null) {
+            byte[] sectionBytes = renderedSection.getBytes(StandardCharsets.UTF_8);
+            writeFully(target, ByteBuffer.wrap(sectionBytes));
+            sections.add(ChangelogManifest.newSection(tag, commitId, previousCommitId, getConfigurationHash(),
+                ChangelogManifest.sha256(sectionBytes), offset, sectionBytes.length));
+            offset += sectionBytes.length;
+          } else if (reusableSection != null && source != null) {
+            transferFully(source, reusableSection.offset(), reusableSection.length(), target);
+            sections.add(ChangelogManifest.newSection(tag, commitId, previousCommitId, getConfigurationHash(),
+                reusableSection.sha256(), offset, reusableSection.length()));
+            offset += reusableSection.length();
+          } else {
+            throw new IllegalStateException("No changelog section available for tag [" + tag + "]");
+          }
+        }
+      }
+
+      Files.move(tempFile, changelogFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      if (this.runMetrics.isEnabled()) {
+        this.runMetrics.increment(RunMetrics.CHANGELOG_BYTES_WRITTEN, Files.size(changelogFile));
       }
+    } finally {
+      Files.deleteIfExists(tempFile);
     }
 
-    writeChangeLog(repoDir, changelogBuilder.toString(), ApplicationConstants.CONST_PREPEND_TO_CHANGELOG);
+    new ChangelogManifest(sections).save(changelogDirectory);
   }
 
+  /**
+   * @return the manifest of the changelog within the given repository, verified against the changelog's contents
+   */
+  public ChangelogManifest loadManifest(File repoDir) throws IOException {
+    Path changelogDirectory = getChangelogDirectory(repoDir);
+    return ChangelogManifest.load(changelogDirectory, changelogDirectory.resolve(CHANGELOG_FILE_NAME));
+  }
+
+  /**
+   * Writes the changelog by streaming the new content into a temp file, transferring any existing
+   * changelog behind it when prepending, and atomically moving the temp file over the changelog.
+   * Memory use does not depend on the size of the existing changelog.
+   */
   public void writeChangeLog(File repoDir, String fileContent, boolean... prepend) throws IOException {
-    File changelogDirectory = new File(repoDir.getAbsolutePath() + "/changelog");
-    changelogDirectory.mkdirs();
-    File changelogFile = new File(changelogDirectory, "changelog.md");
-    if (!changelogFile.exists()) {
-      changelogFile.createNewFile();
-    }
+    Path changelogDirectory = getChangelogDirectory(repoDir);
+    Path changelogFile = changelogDirectory.resolve(CHANGELOG_FILE_NAME);
+    Path tempFile = Files.createTempFile(changelogDirectory, "changelog", ".md.tmp");
+
+    try (RunMetrics.Timer ignored = this.runMetrics.time(RunMetrics.PHASE_CHANGELOG_WRITE)) {
+      try (FileChannel target = FileChannel.open(tempFile, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+        writeFully(target, fileContent);
+
+        if (prepend != null && prepend.length > 0 && prepend[0]) {
+          writeFully(target, SECTION_SEPARATOR);
 
-    if (prepend != null && prepend[0]) {
-      FileInputStream fis = new FileInputStream(changelogFile);
-      byte[] buffer = new byte[10];
-      StringBuilder sb = new StringBuilder();
-      while (fis.read(buffer) != -1) {
-        sb.append(new String(buffer));
-        buffer = new byte[10];
+          if (Files.exists(changelogFile)) {
+            try (FileChannel source = FileChannel.open(changelogFile, StandardOpenOption.READ)) {
+              transferFully(source, 0, source.size(), target);
+            }
+          }
+        }
       }
-      fis.close();
 
-      String content = sb.toString();
+      Files.move(tempFile, changelogFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      if (this.runMetrics.isEnabled()) {
+        this.runMetrics.increment(RunMetrics.CHANGELOG_BYTES_WRITTEN, Files.size(changelogFile));
+      }
+    } finally {
+      Files.deleteIfExists(tempFile);
+    }
+  }
+
+  private Path getChangelogDirectory(File repoDir) throws IOException {
+    return Files.createDirectories(repoDir.toPath().resolve(CHANGELOG_DIRECTORY_NAME));
+  }
 
-      fileContent = fileContent + new HorizontalRule(20, HorizontalRule.ASTERISK) + "\n\n" + content;
+  private long writeFully(FileChannel target, String content) throws IOException {
+    return writeFully(target, StandardCharsets.UTF_8.encode(content));
+  }
+
+  private long writeFully(FileChannel target, ByteBuffer buffer) throws IOException {
+    long written = buffer.remaining();
+    while (buffer.hasRemaining()) {
+      target.write(buffer);
     }
+    return written;
+  }
 
-    FileOutputStream outputStream = new FileOutputStream(changelogFile);
-    byte[] strToBytes = fileContent.getBytes();
-    outputStream.write(strToBytes);
-    outputStream.close();
+  private void transferFully(FileChannel source, long offset, long length, FileChannel target) throws IOException {
+    long position = offset;
+    long end = offset + length;
+    while (position < end) {
+      position += source.transferTo(position, end - position, target);
+    }
   }
 }
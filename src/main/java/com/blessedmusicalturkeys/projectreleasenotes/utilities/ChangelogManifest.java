@@ -0,0 +1,201 @@
+package com.blessedmusicalturkeys.projectreleasenotes.utilities;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Records where each tag's section lives within changelog.md, together with the commits the tag and its previous
+ * tag pointed at, a hash of the renderer configuration and a hash of the rendered section, so a full changelog
+ * regeneration only has to render the tags that are new, whose range changed or that would render differently, and
+ * can copy every other section through verbatim.
+ *
+ * @author Timothy Stratton
+ */
+@Slf4j
+public class ChangelogManifest {
+
+  public static final String MANIFEST_FILE_NAME = "changelog.manifest";
+  private static final String MANIFEST_HEADER =
+      "# project-release-notes changelog manifest: tag, commit, previous commit, configuration, sha-256, offset, length";
+  private static final int FIELD_COUNT = 7;
+  //neither a commit nor a configuration hash, so such a section is never reused
+  private static final String UNKNOWN = "-";
+  //the range of the first tag starts at the first commit
+  private static final String NO_PREVIOUS_COMMIT = "none";
+
+  private final List<Section> sections;
+  private final Map<String, Section> sectionsByTag;
+
+  public ChangelogManifest(List<Section> sections) {
+    this.sections = Collections.unmodifiableList(new ArrayList<>(sections));
+    this.sectionsByTag = new HashMap<>();
+    for (Section section : sections) {
+      this.sectionsByTag.putIfAbsent(section.tag(), section);
+    }
+  }
+
+  /**
+   * Loads the manifest stored next to the changelog, keeping only the sections whose bytes in the
+   * changelog still hash to the recorded value.
+   *
+   * @return the verified manifest, empty if there is no manifest or changelog yet
+   */
+  public static ChangelogManifest load(Path changelogDirectory, Path changelogFile) {
+    Path manifestFile = changelogDirectory.resolve(MANIFEST_FILE_NAME);
+    if (!Files.exists(manifestFile) || !Files.exists(changelogFile)) {
+      return new ChangelogManifest(List.of());
+    }
+
+    List<Section> verifiedSections = new ArrayList<>();
+    try (BufferedReader reader = Files.newBufferedReader(manifestFile, StandardCharsets.UTF_8);
+        FileChannel changelog = FileChannel.open(changelogFile, StandardOpenOption.READ)) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        if (line.isBlank() || line.startsWith("#")) {
+          continue;
+        }
+
+        String[] fields = line.split("\t");
+        if (fields.length != FIELD_COUNT) {
+          throw new IOException("Unknown manifest format");
+        }
+        Section section = new Section(fields[0], fields[1], fields[2], fields[3], fields[4], Long.parseLong(fields[5]),
+            Long.parseLong(fields[6]));
+        if (section.offset() + section.length() <= changelog.size()
+            && section.sha256().equals(sha256(changelog, section.offset(), section.length()))) {
+          verifiedSections.add(section);
+        } else {
+          log.info("Changelog section for tag [{}] no longer matches the manifest, it will be regenerated...", section.tag());
+        }
+      }
+    } catch (IOException | RuntimeException e) {
+      log.warn("Ignoring unreadable changelog manifest at [{}]: [{}]", manifestFile, e.getMessage());
+      return new ChangelogManifest(List.of());
+    }
+
+    return new ChangelogManifest(verifiedSections);
+  }
+
+  public void save(Path changelogDirectory) throws IOException {
+    Path manifestFile = changelogDirectory.resolve(MANIFEST_FILE_NAME);
+    Path tempFile = Files.createTempFile(changelogDirectory, MANIFEST_FILE_NAME, ".tmp");
+
+    try {
+      try (BufferedWriter writer = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8)) {
+        writer.write(MANIFEST_HEADER);
+        writer.newLine();
+        for (Section section : this.sections) {
+          writer.write(String.join("\t", section.tag(), section.commitId(), section.previousCommitId(),
+              section.configurationHash(), section.sha256(), String.valueOf(section.offset()),
+              String.valueOf(section.length())));
+          writer.newLine();
+        }
+      }
+
+      Files.move(tempFile, manifestFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(tempFile);
+    }
+  }
+
+  /**
+   * A section is only reused if it covers the same range, i.e. the tag and its previous tag still point at the same
+   * commits, and was rendered with the same configuration. A backport or release candidate tagged below the tag
+   * changes its previous tag, a changed `CHANGELOG_SECTIONS` changes the configuration.
+   *
+   * @param previousCommitId  the commit of the tag the range starts from, null if it starts at the first commit
+   * @param configurationHash see {@link ChangelogRenderer#getConfigurationHash()}
+   * @return the recorded section for the tag if it is still current, otherwise null
+   */
+  public Section getReusableSection(String tag, String commitId, String previousCommitId, String configurationHash) {
+    Section section = this.sectionsByTag.get(tag);
+    return section != null
+        && section.commitId().equals(commitId)
+        && section.previousCommitId().equals(toPreviousCommitId(previousCommitId))
+        && section.configurationHash().equals(configurationHash) ? section : null;
+  }
+
+  /**
+   * @param previousCommitId null if the range of the section starts at the first commit
+   */
+  public static Section newSection(String tag, String commitId, String previousCommitId, String configurationHash,
+      String sha256, long offset, long length) {
+    return new Section(tag, commitId, toPreviousCommitId(previousCommitId), configurationHash, sha256, offset, length);
+  }
+
+  private static String toPreviousCommitId(String previousCommitId) {
+    return previousCommitId == null ? NO_PREVIOUS_COMMIT : previousCommitId;
+  }
+
+  public List<Section> getSections() {
+    return this.sections;
+  }
+
+  /**
+   * @return a copy of this manifest after a section of the given length was prepended to the changelog
+   */
+  public ChangelogManifest withPrependedSection(String tag, String sha256, long length, long separatorLength) {
+    List<Section> shiftedSections = new ArrayList<>();
+    shiftedSections.add(new Section(tag, UNKNOWN, UNKNOWN, UNKNOWN, sha256, 0, length));
+    for (Section section : this.sections) {
+      shiftedSections.add(new Section(section.tag(), section.commitId(), section.previousCommitId(),
+          section.configurationHash(), section.sha256(), section.offset() + length + separatorLength, section.length()));
+    }
+    return new ChangelogManifest(shiftedSections);
+  }
+
+  public static String sha256(byte[] content) {
+    return HexFormat.of().formatHex(newDigest().digest(content));
+  }
+
+  private static String sha256(FileChannel channel, long offset, long length) throws IOException {
+    MessageDigest digest = newDigest();
+    ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+    long position = offset;
+    long end = offset + length;
+
+    while (position < end) {
+      buffer.clear();
+      buffer.limit((int) Math.min(buffer.capacity(), end - position));
+      int read = channel.read(buffer, position);
+      if (read < 0) {
+        break;
+      }
+      buffer.flip();
+      digest.update(buffer);
+      position += read;
+    }
+
+    return HexFormat.of().formatHex(digest.digest());
+  }
+
+  private static MessageDigest newDigest() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  public record Section(String tag, String commitId, String previousCommitId, String configurationHash, String sha256,
+      long offset, long length) {
+
+  }
+}
@@ -0,0 +1,152 @@
+package com.blessedmusicalturkeys.projectreleasenotes.utilities;
+
+import com.blessedmusicalturkeys.projectreleasenotes.domain.JiraIssue;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import net.steppschuh.markdowngenerator.text.heading.Heading;
+
+/**
+ * Renders the Markdown section of a release. The issues are bucketed by type in a single pass and then
+ * written section by section, in the order the sections were configured, with any issue type that is not
+ * mapped to a section ending up in a trailing "Other" section.
+ *
+ * @author Timothy Stratton
+ */
+public class ChangelogRenderer {
+
+  public static final String OTHER_SECTION = "Other";
+  public static final Map<String, String> DEFAULT_SECTIONS_BY_ISSUE_TYPE = defaultSections();
+
+  //the issue lines are ATX headings, written directly instead of through a Heading per line
+  private static final String[] HEADING_PREFIXES = {"", "# ", "## ", "### ", "#### ", "##### ", "###### "};
+  private static final int ISSUE_LINE_OVERHEAD = 20;
+
+  //bumped whenever a change to the rendering changes the bytes of a section
+  private static final int RENDERING_VERSION = 1;
+
+  private final Map<String, Integer> sectionIndexByIssueType = new HashMap<>();
+  private final List<String> sectionHeadings = new ArrayList<>();
+  private final String otherSectionHeading;
+  private final String configurationHash;
+
+  /**
+   * @param sectionsByIssueType issue type name to section title, sections are rendered in iteration order and
+   *                            several issue types may share a section
+   */
+  public ChangelogRenderer(Map<String, String> sectionsByIssueType) {
+    Map<String, Integer> sectionIndexByTitle = new HashMap<>();
+    StringBuilder configuration = new StringBuilder("rendering=").append(RENDERING_VERSION).append('\n');
+
+    for (Map.Entry<String, String> sectionByIssueType : sectionsByIssueType.entrySet()) {
+      configuration.append(sectionByIssueType.getKey()).append('=').append(sectionByIssueType.getValue()).append('\n');
+      Integer sectionIndex = sectionIndexByTitle.get(sectionByIssueType.getValue());
+      if (sectionIndex == null) {
+        sectionIndex = this.sectionHeadings.size();
+        sectionIndexByTitle.put(sectionByIssueType.getValue(), sectionIndex);
+        this.sectionHeadings.add(new Heading(sectionByIssueType.getValue(), 2) + "\n");
+      }
+      this.sectionIndexByIssueType.put(sectionByIssueType.getKey(), sectionIndex);
+    }
+
+    this.otherSectionHeading = new Heading(OTHER_SECTION, 2) + "\n";
+    this.configurationHash = ChangelogManifest.sha256(configuration.toString().getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * @return a hash of everything besides the issues that shapes a rendered section, i.e. the sections, their order
+   * and headings, and the rendering itself
+   */
+  public String getConfigurationHash() {
+    return this.configurationHash;
+  }
+
+  public String render(String releaseName, List<JiraIssue> issues) {
+    List<List<JiraIssue>> buckets = newBuckets();
+
+    int estimatedLength = 256;
+    for (JiraIssue issue : issues) {
+      buckets.get(this.sectionIndexByIssueType.getOrDefault(issue.type(), this.sectionHeadings.size())).add(issue);
+      estimatedLength += ISSUE_LINE_OVERHEAD + lengthOf(issue.key()) + lengthOf(issue.summary()) + lengthOf(issue.description());
+    }
+
+    StringBuilder changelogBuilder = new StringBuilder(estimatedLength);
+    try {
+      renderBuckets(releaseName, buckets, changelogBuilder);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e); //a StringBuilder does not throw
+    }
+    return changelogBuilder.toString();
+  }
+
+  /**
+   * Streams the release section to the given output, e.g. a Writer
+   */
+  public void render(String releaseName, List<JiraIssue> issues, Appendable output) throws IOException {
+    List<List<JiraIssue>> buckets = newBuckets();
+
+    for (JiraIssue issue : issues) {
+      buckets.get(this.sectionIndexByIssueType.getOrDefault(issue.type(), this.sectionHeadings.size())).add(issue);
+    }
+
+    renderBuckets(releaseName, buckets, output);
+  }
+
+  //one bucket per section plus the trailing "Other" bucket
+  private List<List<JiraIssue>> newBuckets() {
+    List<List<JiraIssue>> buckets = new ArrayList<>(this.sectionHeadings.size() + 1);
+    for (int i = 0; i <= this.sectionHeadings.size(); i++) {
+      buckets.add(new ArrayList<>());
+    }
+    return buckets;
+  }
+
+  private void renderBuckets(String releaseName, List<List<JiraIssue>> buckets, Appendable output) throws IOException {
+    output.append(new Heading("Release " + releaseName, 1).toString()).append('\n');
+
+    for (int i = 0; i < this.sectionHeadings.size(); i++) {
+      output.append(this.sectionHeadings.get(i));
+      appendIssues(buckets.get(i), output);
+    }
+
+    //only rendered when needed, so releases of mapped types only look the same as they always have
+    List<JiraIssue> otherIssues = buckets.get(this.sectionHeadings.size());
+    if (!otherIssues.isEmpty()) {
+      output.append(this.otherSectionHeading);
+      appendIssues(otherIssues, output);
+    }
+  }
+
+  private void appendIssues(List<JiraIssue> issues, Appendable output) throws IOException {
+    for (JiraIssue issue : issues) {
+      appendHeading(issue.key(), 3, output).append('\n');
+      appendHeading(issue.summary(), 4, output).append('\n');
+      appendHeading(issue.description(), 5, output).append("\n\n");
+    }
+  }
+
+  private static Appendable appendHeading(String value, int level, Appendable output) throws IOException {
+    if (value == null) {
+      //leave the library's handling of missing values untouched
+      return output.append(new Heading(value, level).toString());
+    }
+    return output.append(HEADING_PREFIXES[level]).append(value);
+  }
+
+  private static int lengthOf(String value) {
+    return value == null ? 0 : value.length();
+  }
+
+  private static Map<String, String> defaultSections() {
+    Map<String, String> sections = new LinkedHashMap<>();
+    sections.put("Story", "Stories Completed");
+    sections.put("Bug", "Bugs Fixed");
+    return Collections.unmodifiableMap(sections);
+  }
+}
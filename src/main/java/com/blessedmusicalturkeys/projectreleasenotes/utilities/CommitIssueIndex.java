@@ -0,0 +1,261 @@
+package com.blessedmusicalturkeys.projectreleasenotes.utilities;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.jgit.lib.AnyObjectId;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+
+/**
+ * On-disk index of the issue keys merged below the tags of a repository, persisted between runs. Every commit
+ * carrying issue keys is recorded with its keys and the earliest tag containing it, so the issues of a tag are a
+ * lookup instead of a walk of its commits.
+ *
+ * The history below a tag never changes, so an update only walks the commits of tags that are new since the last
+ * run. If an indexed tag was moved or deleted, or a new tag ranks below an indexed one, the earliest containing tag
+ * of the indexed commits may have changed and the index is rebuilt from scratch.
+ *
+ * The issues between two tags are the issues of the tags ranked in between only if every tag contains the tags
+ * ranked below it, which is checked as tags are indexed, see {@link #isOrdered()}.
+ *
+ * @author Timothy Stratton
+ */
+@Slf4j
+public class CommitIssueIndex {
+
+  private static final int FORMAT_VERSION = 1;
+
+  private final Path indexFile;
+  private final String extractorSignature;
+  //every tag the index covers, lowest rank first, with the commit it pointed at when it was indexed
+  private final Map<String, ObjectId> indexedTags = new LinkedHashMap<>();
+  //in walk order, children first, which is also the order they are saved and loaded in, so the issues of a tag keep
+  //their order across runs
+  private final Map<ObjectId, IndexedCommit> commits = new LinkedHashMap<>();
+  private final Map<String, List<String>> issueKeysByTag = new HashMap<>();
+  private boolean ordered = true;
+  private boolean modified;
+
+  /**
+   * @param indexFile          where the index is persisted, or null to keep it in memory for this run only
+   * @param extractorSignature identifies how issue keys were extracted, an index written with a different one is
+   *                           discarded
+   */
+  public CommitIssueIndex(Path indexFile, String extractorSignature) {
+    this.indexFile = indexFile;
+    this.extractorSignature = extractorSignature;
+
+    if (indexFile != null) {
+      load();
+    }
+  }
+
+  /**
+   * @return the index file of the repository within the index directory
+   */
+  public static Path indexFileFor(File indexDirectory, String repositoryUrl) {
+    return indexDirectory.toPath().resolve(String.valueOf(repositoryUrl).replaceAll("[^A-Za-z0-9._-]", "_") + ".idx");
+  }
+
+  /**
+   * Indexes the commits of every tag that is not indexed yet, in a single walk of their history
+   *
+   * @param rankedTags the tags to index, lowest rank first, i.e. in the order releases are made
+   * @param tagCommits resolves a tag to the commit it points at
+   * @return the number of commits walked
+   */
+  public long update(TagHistoryPartitioner partitioner, List<String> rankedTags, Function<String, ObjectId> tagCommits)
+      throws IOException {
+    if (!isValidFor(rankedTags, tagCommits)) {
+      log.info("Rebuilding the commit index as tags were moved, deleted or added below the indexed ones...");
+      clear();
+    }
+
+    List<String> newTags = rankedTags.subList(this.indexedTags.size(), rankedTags.size());
+    if (newTags.isEmpty()) {
+      return 0;
+    }
+    long commitsWalked = partitioner.getCommitsWalked();
+
+    //everything below an indexed tag is already assigned to the earliest tag containing it
+    TagHistoryPartitioner.TagPartition partition = partitioner.partition(newTags, tagCommits,
+        new LinkedHashSet<>(this.indexedTags.values()));
+    for (TagHistoryPartitioner.PartitionedCommit partitionedCommit : partition.commits()) {
+      put(partitionedCommit.commitId(), new IndexedCommit(partitionedCommit.tag(), partitionedCommit.issueKeys()));
+    }
+
+    boolean ordered = partition.ordered() && (this.indexedTags.isEmpty() || partitioner.contains(
+        tagCommits.apply(newTags.get(0)), tagCommits.apply(rankedTags.get(this.indexedTags.size() - 1))));
+    if (this.ordered && !ordered) {
+      log.info("Not every tag contains the tag ranked below it, tag ranges will be walked...");
+      this.ordered = false;
+    }
+    for (String tag : newTags) {
+      this.indexedTags.put(tag, tagCommits.apply(tag).copy());
+    }
+    this.modified = true;
+
+    commitsWalked = partitioner.getCommitsWalked() - commitsWalked;
+    log.info("Indexed [{}] new tags, [{}] commits walked, [{}] commits with issues indexed...", newTags.size(),
+        commitsWalked, this.commits.size());
+    return commitsWalked;
+  }
+
+  private boolean isValidFor(List<String> rankedTags, Function<String, ObjectId> tagCommits) {
+    if (this.indexedTags.size() > rankedTags.size()) {
+      return false;
+    }
+
+    int rank = 0;
+    for (Map.Entry<String, ObjectId> indexedTag : this.indexedTags.entrySet()) {
+      //new tags must rank above every indexed one, so the indexed tags still lead the ranking
+      if (!indexedTag.getKey().equals(rankedTags.get(rank++))
+          || !indexedTag.getValue().equals(tagCommits.apply(indexedTag.getKey()))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * @return whether every indexed tag contains the tags ranked below it, so that the issues between two tags are the
+   * issues of the tags ranked in between
+   */
+  public boolean isOrdered() {
+    return this.ordered;
+  }
+
+  public boolean covers(String tagName) {
+    return this.indexedTags.containsKey(tagName);
+  }
+
+  /**
+   * @return the issue keys of the commits whose earliest containing tag is the given tag
+   */
+  public List<String> getIssueKeys(String tagName) {
+    return this.issueKeysByTag.getOrDefault(tagName, Collections.emptyList());
+  }
+
+  /**
+   * @return the earliest tag containing the commit, or null if the commit carries no issues or is not indexed
+   */
+  public String getTag(AnyObjectId commitId) {
+    IndexedCommit indexedCommit = this.commits.get(commitId);
+    return indexedCommit == null ? null : indexedCommit.tag();
+  }
+
+  public void save() {
+    if (this.indexFile == null || !this.modified) {
+      return;
+    }
+
+    try {
+      Files.createDirectories(this.indexFile.getParent());
+      Path tempFile = Files.createTempFile(this.indexFile.getParent(), this.indexFile.getFileName().toString(), ".tmp");
+
+      try (DataOutputStream outputStream = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+        outputStream.writeInt(FORMAT_VERSION);
+        outputStream.writeUTF(this.extractorSignature);
+        outputStream.writeBoolean(this.ordered);
+
+        outputStream.writeInt(this.indexedTags.size());
+        for (Map.Entry<String, ObjectId> indexedTag : this.indexedTags.entrySet()) {
+          outputStream.writeUTF(indexedTag.getKey());
+          indexedTag.getValue().copyRawTo(outputStream);
+        }
+
+        outputStream.writeInt(this.commits.size());
+        for (Map.Entry<ObjectId, IndexedCommit> commit : this.commits.entrySet()) {
+          commit.getKey().copyRawTo(outputStream);
+          outputStream.writeUTF(commit.getValue().tag());
+          outputStream.writeShort(commit.getValue().issueKeys().size());
+          for (String issueKey : commit.getValue().issueKeys()) {
+            outputStream.writeUTF(issueKey);
+          }
+        }
+      }
+
+      Files.move(tempFile, this.indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      this.modified = false;
+    } catch (IOException e) {
+      log.warn("Unable to persist the commit index to [{}]: [{}]", this.indexFile, e.getMessage());
+    }
+  }
+
+  private void load() {
+    if (!Files.exists(this.indexFile)) {
+      return;
+    }
+
+    try (DataInputStream inputStream = new DataInputStream(new BufferedInputStream(Files.newInputStream(this.indexFile)))) {
+      if (inputStream.readInt() != FORMAT_VERSION || !this.extractorSignature.equals(inputStream.readUTF())) {
+        log.info("Discarding the commit index at [{}] as it was built differently...", this.indexFile);
+        return;
+      }
+      this.ordered = inputStream.readBoolean();
+
+      byte[] rawId = new byte[Constants.OBJECT_ID_LENGTH];
+      int tagCount = inputStream.readInt();
+      for (int i = 0; i < tagCount; i++) {
+        String tag = inputStream.readUTF();
+        inputStream.readFully(rawId);
+        this.indexedTags.put(tag, ObjectId.fromRaw(rawId));
+      }
+
+      int commitCount = inputStream.readInt();
+      for (int i = 0; i < commitCount; i++) {
+        inputStream.readFully(rawId);
+        ObjectId commitId = ObjectId.fromRaw(rawId);
+        String tag = inputStream.readUTF();
+        int keyCount = inputStream.readUnsignedShort();
+        List<String> issueKeys = new ArrayList<>(keyCount);
+        for (int j = 0; j < keyCount; j++) {
+          issueKeys.add(inputStream.readUTF());
+        }
+        put(commitId, new IndexedCommit(tag, issueKeys));
+      }
+      log.info("Loaded the commit index of [{}] tags from [{}]...", this.indexedTags.size(), this.indexFile);
+    } catch (IOException e) {
+      log.warn("Ignoring unreadable commit index at [{}]: [{}]", this.indexFile, e.getMessage());
+      clear();
+    }
+  }
+
+  private void put(ObjectId commitId, IndexedCommit indexedCommit) {
+    this.commits.put(commitId, indexedCommit);
+    List<String> tagIssueKeys = this.issueKeysByTag.computeIfAbsent(indexedCommit.tag(), tag -> new ArrayList<>());
+    for (String issueKey : indexedCommit.issueKeys()) {
+      if (!tagIssueKeys.contains(issueKey)) {
+        tagIssueKeys.add(issueKey);
+      }
+    }
+  }
+
+  private void clear() {
+    this.indexedTags.clear();
+    this.commits.clear();
+    this.issueKeysByTag.clear();
+    this.ordered = true;
+    this.modified = true;
+  }
+
+  private record IndexedCommit(String tag, List<String> issueKeys) {
+
+  }
+}
@@ -1,6 +1,10 @@
 package com.blessedmusicalturkeys.projectreleasenotes.utilities;
 
+import java.util.Arrays;
 import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import org.apache.commons.lang3.ObjectUtils.Null;
 
 /**
@@ -17,6 +21,11 @@ public class EnvironmentVariables {
     }
   }
 
+  public static String getString(String variableName, String defaultValue) {
+    String variable = getString(variableName);
+    return variable == null || variable.isBlank() ? defaultValue : variable;
+  }
+
   public static String getBase64EncodedString(String variableName) {
     String encodedVariable = System.getenv(variableName);
     try {
@@ -26,10 +35,41 @@ public class EnvironmentVariables {
     }
   }
 
+  /**
+   * @return the comma separated values of the variable, or the default values if the variable is not set
+   */
+  public static List<String> getList(String variableName, List<String> defaultValues) {
+    String variable = getString(variableName);
+    if (variable == null || variable.isBlank()) {
+      return defaultValues;
+    }
+    return Arrays.stream(variable.split(",")).map(String::trim).filter(value -> !value.isEmpty()).toList();
+  }
+
+  /**
+   * @return the comma separated `key=value` pairs of the variable in their given order, or the default values
+   *         if the variable is not set
+   */
+  public static Map<String, String> getMap(String variableName, Map<String, String> defaultValues) {
+    Map<String, String> values = new LinkedHashMap<>();
+    for (String pair : getList(variableName, List.of())) {
+      String[] keyAndValue = pair.split("=", 2);
+      if (keyAndValue.length == 2) {
+        values.put(keyAndValue[0].trim(), keyAndValue[1].trim());
+      }
+    }
+    return values.isEmpty() ? defaultValues : values;
+  }
+
   public static Integer getInt(String variableName) {
     return Integer.parseInt(System.getenv(variableName));
   }
 
+  public static Integer getInt(String variableName, int defaultValue) {
+    String variable = System.getenv(variableName);
+    return variable == null || variable.isBlank() ? defaultValue : Integer.parseInt(variable.trim());
+  }
+
   public static Long getLong(String variableName) {
     return Long.parseLong(System.getenv(variableName));
   }
@@ -41,4 +81,9 @@ public class EnvironmentVariables {
   public static Boolean getBoolean(String variableName) {
     return Boolean.parseBoolean(System.getenv(variableName));
   }
+
+  public static Boolean getBoolean(String variableName, boolean defaultValue) {
+    String variable = System.getenv(variableName);
+    return variable == null || variable.isBlank() ? defaultValue : Boolean.parseBoolean(variable.trim());
+  }
 }
@@ -0,0 +1,196 @@
+package com.blessedmusicalturkeys.projectreleasenotes.utilities;
+
+import com.blessedmusicalturkeys.projectreleasenotes.constants.GitWorkspaceMode;
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.jgit.api.CloneCommand;
+import org.eclipse.jgit.api.CreateBranchCommand.SetupUpstreamMode;
+import org.eclipse.jgit.api.FetchCommand;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.TransportCommand;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.StoredConfig;
+import org.eclipse.jgit.transport.RefSpec;
+import org.eclipse.jgit.transport.TagOpt;
+
+/**
+ * Prepares the working copy of the configured GIT repository, either with a full clone (the default),
+ * from a persistent bare mirror that is only fetched incrementally, or with a depth-limited shallow clone.
+ *
+ * @author Timothy Stratton
+ */
+@Slf4j
+public class GitWorkspaceManager {
+
+  private static final RefSpec HEADS_REFSPEC = new RefSpec("+refs/heads/*:refs/heads/*");
+  private static final RefSpec TAGS_REFSPEC = new RefSpec("+refs/tags/*:refs/tags/*");
+  private static final RefSpec REMOTE_HEADS_REFSPEC = new RefSpec("+refs/heads/*:refs/remotes/origin/*");
+
+  private final TransportConfigurer transportConfigurer;
+  private final File cacheDir;
+  private final int shallowDepth;
+
+  /**
+   * Applies the credentials or SSH session configuration to a command that talks to the remote
+   */
+  public interface TransportConfigurer {
+    void configure(TransportCommand<?, ?> command);
+  }
+
+  public GitWorkspaceManager(TransportConfigurer transportConfigurer, File cacheDir, int shallowDepth) {
+    this.transportConfigurer = transportConfigurer;
+    this.cacheDir = cacheDir;
+    this.shallowDepth = shallowDepth;
+  }
+
+  public Git open(GitWorkspaceMode mode, String repositoryUrl, String trunk, File workingDir)
+      throws IOException, GitAPIException {
+    return switch (mode) {
+      case MIRROR -> openFromMirror(repositoryUrl, trunk, workingDir);
+      case SHALLOW -> cloneShallow(repositoryUrl, trunk, workingDir);
+      default -> cloneFull(repositoryUrl, workingDir);
+    };
+  }
+
+  /**
+   * Fetches only the commit at the tip of the trunk, to a depth of one, into a bare repository. Neither the
+   * history, the tags nor a working tree are brought down, which is all tagging the trunk needs.
+   */
+  public Git fetchTrunkTip(String repositoryUrl, String trunk, File gitDir) throws IOException, GitAPIException {
+    log.info("Fetching the tip of [{}]...", trunk);
+    Git git = Git.init().setBare(true).setDirectory(gitDir).call();
+
+    StoredConfig config = git.getRepository().getConfig();
+    config.setString("remote", "origin", "url", repositoryUrl);
+    config.save();
+
+    FetchCommand fetch = git.fetch()
+        .setRemote("origin")
+        .setRefSpecs(new RefSpec("+" + Constants.R_HEADS + trunk + ":" + Constants.R_HEADS + trunk))
+        .setTagOpt(TagOpt.NO_TAGS)
+        .setDepth(1);
+    this.transportConfigurer.configure(fetch);
+    fetch.call();
+
+    return git;
+  }
+
+  private Git cloneFull(String repositoryUrl, File workingDir) throws GitAPIException {
+    CloneCommand clone = Git.cloneRepository()
+        .setDirectory(workingDir)
+        .setURI(repositoryUrl);
+    this.transportConfigurer.configure(clone);
+    return clone.call();
+  }
+
+  private Git cloneShallow(String repositoryUrl, String trunk, File workingDir) throws GitAPIException {
+    log.info("Shallow cloning [{}] to a depth of [{}] commits...", trunk, this.shallowDepth);
+    CloneCommand clone = Git.cloneRepository()
+        .setDirectory(workingDir)
+        .setURI(repositoryUrl)
+        .setBranch(trunk)
+        .setBranchesToClone(List.of(Constants.R_HEADS + trunk))
+        .setDepth(this.shallowDepth);
+    this.transportConfigurer.configure(clone);
+    Git git = clone.call();
+
+    FetchCommand fetchTags = git.fetch()
+        .setRefSpecs(TAGS_REFSPEC)
+        .setDepth(this.shallowDepth);
+    this.transportConfigurer.configure(fetchTags);
+    fetchTags.call();
+
+    return git;
+  }
+
+  /**
+   * Fetches the trunk and tags of a shallow clone again to the given, greater, depth, so commits that were cut off
+   * become reachable
+   */
+  public void deepen(Git git, String trunk, int depth) throws GitAPIException {
+    log.info("Deepening the shallow clone of [{}] to [{}] commits...", trunk, depth);
+    FetchCommand fetch = git.fetch()
+        .setRefSpecs(new RefSpec("+" + Constants.R_HEADS + trunk + ":" + Constants.R_REMOTES
+            + Constants.DEFAULT_REMOTE_NAME + "/" + trunk), TAGS_REFSPEC)
+        .setDepth(depth);
+    this.transportConfigurer.configure(fetch);
+    fetch.call();
+  }
+
+  /**
+   * Brings the persistent mirror up to date and creates a working copy that borrows the mirror's objects
+   * through `objects/info/alternates`, so only the checkout itself touches the disk.
+   */
+  private Git openFromMirror(String repositoryUrl, String trunk, File workingDir) throws IOException, GitAPIException {
+    File mirrorDir = updateMirror(repositoryUrl);
+
+    Git git = Git.init().setDirectory(workingDir).call();
+    Path alternates = git.getRepository().getDirectory().toPath().resolve("objects/info/alternates");
+    Files.createDirectories(alternates.getParent());
+    Files.writeString(alternates, new File(mirrorDir, "objects").getAbsolutePath() + "\n", StandardCharsets.UTF_8);
+
+    //every object is already reachable through the alternates, so this only copies refs
+    git.fetch()
+        .setRemote(mirrorDir.getAbsolutePath())
+        .setRefSpecs(REMOTE_HEADS_REFSPEC, TAGS_REFSPEC)
+        .call();
+
+    StoredConfig config = git.getRepository().getConfig();
+    config.setString("remote", "origin", "url", repositoryUrl);
+    config.setString("remote", "origin", "fetch", REMOTE_HEADS_REFSPEC.toString());
+    config.save();
+
+    git.checkout()
+        .setCreateBranch(true)
+        .setName(trunk)
+        .setStartPoint("origin/" + trunk)
+        .setUpstreamMode(SetupUpstreamMode.TRACK)
+        .call();
+
+    return git;
+  }
+
+  private File updateMirror(String repositoryUrl) throws IOException, GitAPIException {
+    Files.createDirectories(this.cacheDir.toPath());
+    String mirrorName = repositoryUrl.replaceAll("[^A-Za-z0-9._-]", "_");
+    File mirrorDir = new File(this.cacheDir, mirrorName + ".git");
+
+    //runs sharing the cache directory take turns updating the mirror
+    try (FileChannel lockChannel = FileChannel.open(this.cacheDir.toPath().resolve(mirrorName + ".lock"),
+        StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        FileLock ignored = lockChannel.lock()) {
+
+      if (new File(mirrorDir, "objects").isDirectory()) {
+        log.info("Fetching new commits into the mirror at [{}]...", mirrorDir);
+        try (Git mirror = Git.open(mirrorDir)) {
+          FetchCommand fetch = mirror.fetch()
+              .setRemote("origin")
+              .setRefSpecs(HEADS_REFSPEC, TAGS_REFSPEC)
+              .setRemoveDeletedRefs(true);
+          this.transportConfigurer.configure(fetch);
+          fetch.call();
+        }
+      } else {
+        log.info("Creating the mirror at [{}]...", mirrorDir);
+        CloneCommand clone = Git.cloneRepository()
+            .setBare(true)
+            .setCloneAllBranches(true)
+            .setDirectory(mirrorDir)
+            .setURI(repositoryUrl);
+        this.transportConfigurer.configure(clone);
+        clone.call().close();
+      }
+    }
+
+    return mirrorDir;
+  }
+}
@@ -0,0 +1,80 @@
+package com.blessedmusicalturkeys.projectreleasenotes.utilities;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Extracts the JIRA issue keys out of a merge commit message, e.g. `Merged in feature/PROJ-123-some-work`,
+ * using patterns that are compiled once for the configured project keys and branch prefixes.
+ *
+ * @author Timothy Stratton
+ */
+public class IssueKeyExtractor {
+
+  public static final List<String> DEFAULT_BRANCH_PREFIXES = List.of(
+      "feature/", "features/",
+      "hotfix/", "hotfixes/",
+      "fix/", "fixes/",
+      "bug/", "bugs/",
+      "bugfix/", "bugfixes/",
+      "release/", "releases/");
+
+  private static final String CONST_MERGE_PREAMBLE = "Merged in ";
+
+  private final Pattern mergedBranchPattern;
+  private final Pattern issueKeyPattern;
+
+  /**
+   * @throws IllegalArgumentException if there is no project key, which would match every `-123` in a merge commit
+   */
+  public IssueKeyExtractor(Collection<String> projectKeys, Collection<String> branchPrefixes) {
+    String projectKeyAlternatives = alternativesOf(projectKeys);
+    if (projectKeyAlternatives.isEmpty()) {
+      throw new IllegalArgumentException("At least one JIRA project key is required to extract issue keys");
+    }
+    String branchPrefixAlternatives = alternativesOf(branchPrefixes);
+
+    //the branch name has to start with an issue key, optionally behind one of the branch prefixes
+    this.mergedBranchPattern = Pattern.compile(Pattern.quote(CONST_MERGE_PREAMBLE)
+        + (branchPrefixAlternatives.isEmpty() ? "" : "(?:" + branchPrefixAlternatives + ")?")
+        + "((?:" + projectKeyAlternatives + ")-\\d+\\S*)");
+    this.issueKeyPattern = Pattern.compile("(?<![A-Za-z0-9])(?:" + projectKeyAlternatives + ")-\\d+");
+  }
+
+  /**
+   * @return every issue key found within the merged branch name, in order of appearance, or an empty list
+   *         if the message is not a merge of an issue branch
+   */
+  public List<String> extract(String commitMessage) {
+    Matcher mergedBranch = this.mergedBranchPattern.matcher(commitMessage);
+    if (!mergedBranch.find()) {
+      return List.of();
+    }
+
+    Set<String> issueKeys = new LinkedHashSet<>();
+    Matcher issueKey = this.issueKeyPattern.matcher(commitMessage).region(mergedBranch.start(1), mergedBranch.end(1));
+    while (issueKey.find()) {
+      issueKeys.add(issueKey.group());
+    }
+
+    return new ArrayList<>(issueKeys);
+  }
+
+  private static String alternativesOf(Collection<String> values) {
+    //longest first so that alternatives sharing a start do not shadow each other
+    return values.stream()
+        .filter(value -> value != null && !value.isBlank())
+        .map(String::trim)
+        .distinct()
+        .sorted(Comparator.comparingInt(String::length).reversed())
+        .map(Pattern::quote)
+        .collect(Collectors.joining("|"));
+  }
+}
@@ -1,6 +1,8 @@
 package com.blessedmusicalturkeys.projectreleasenotes.utilities;
 
 import com.blessedmusicalturkeys.projectreleasenotes.constants.ApplicationConstants;
+import com.blessedmusicalturkeys.projectreleasenotes.constants.GitWorkspaceMode;
+import com.blessedmusicalturkeys.projectreleasenotes.domain.RunConfiguration;
 import com.jcraft.jsch.JSch;
 import com.jcraft.jsch.JSchException;
 import com.jcraft.jsch.Session;
@@ -8,26 +10,52 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
 import lombok.extern.slf4j.Slf4j;
 import org.eclipse.jgit.api.CheckoutCommand;
 import org.eclipse.jgit.api.CommitCommand;
 import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.LsRemoteCommand;
 import org.eclipse.jgit.api.MergeCommand;
 import org.eclipse.jgit.api.MergeResult;
+import org.eclipse.jgit.api.PushCommand;
 import org.eclipse.jgit.api.TagCommand;
+import org.eclipse.jgit.api.TransportCommand;
 import org.eclipse.jgit.api.TransportConfigCallback;
 import org.eclipse.jgit.api.errors.GitAPIException;
-import org.eclipse.jgit.errors.MissingObjectException;
+import org.eclipse.jgit.dircache.DirCache;
+import org.eclipse.jgit.dircache.DirCacheBuilder;
+import org.eclipse.jgit.dircache.DirCacheEditor;
+import org.eclipse.jgit.dircache.DirCacheEditor.PathEdit;
+import org.eclipse.jgit.dircache.DirCacheEntry;
+import org.eclipse.jgit.lib.AnyObjectId;
+import org.eclipse.jgit.lib.CommitBuilder;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.FileMode;
 import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectInserter;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.lib.PersonIdent;
+import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.lib.RefUpdate;
+import org.eclipse.jgit.lib.Repository;
 import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevSort;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.revwalk.filter.RevFilter;
+import org.eclipse.jgit.transport.CredentialsProvider;
 import org.eclipse.jgit.transport.PushResult;
 import org.eclipse.jgit.transport.RefSpec;
 import org.eclipse.jgit.transport.RemoteRefUpdate.Status;
@@ -38,6 +66,7 @@ import org.eclipse.jgit.transport.UsernamePasswordCredentialsProvider;
 import org.eclipse.jgit.transport.ssh.jsch.JschConfigSessionFactory;
 import org.eclipse.jgit.transport.ssh.jsch.OpenSshConfig;
 import org.eclipse.jgit.util.FS;
+import org.eclipse.jgit.util.FileUtils;
 
 /**
  * Class that connects to the provided GIT repository and performs GIT operations on it
@@ -45,176 +74,560 @@ import org.eclipse.jgit.util.FS;
  * @author Timothy Stratton
  */
 @Slf4j
-public class JGit {
+public class JGit implements AutoCloseable {
 
   public static final String REFS_TAGS = "refs/tags/";
   public static final String REFS_HEADS = "refs/heads/";
+  private final RunConfiguration configuration;
   private final String gitPrivateKey;
   private final Git git;
   private final File workingDir;
+  private TagIndex tagIndex;
+  private ReleaseTagIndex releaseTagIndex;
+  private RevWalk revWalk;
+  //only set in SHALLOW mode, which deepens the clone whenever a range reaches past its history
+  private GitWorkspaceManager shallowWorkspaceManager;
+  private int shallowDepth;
+
+  private static final String CONST_MERGE_PREAMBLE = "Merged in";
+
+  private final IssueKeyExtractor issueKeyExtractor;
+  private CommitIssueIndex commitIssueIndex;
+  //the tag index the commit index was last brought up to date with
+  private TagIndex commitIssueIndexTags;
+  private final MergeCommitRevFilter mergeCommitFilter = new MergeCommitRevFilter(CONST_MERGE_PREAMBLE);
+  private RunMetrics runMetrics = RunMetrics.DISABLED;
+
+  //created once per run, so every fetch and push shares one session factory and one private key file
+  private TransportConfigCallback sshTransportConfigCallback;
+  private CredentialsProvider credentialsProvider;
 
-  private final String CONST_MERGE_PREAMBLE = "Merged in";
+  public JGit() throws IOException, GitAPIException {
+    this(RunConfiguration.fromEnvironment(), GitWorkspaceMode.fromEnvironment());
+  }
 
-  private final Set<String> typicalGitFolders = Set
-      .of("", //no folder
-          "feature/", "features/",
-          "hotfix/", "hotfixes/",
-          "fix/", "fixes/",
-          "bug/", "bugs/",
-          "bugfix/", "bugfixes/",
-          "release/", "releases/");
+  public JGit(RunConfiguration configuration, GitWorkspaceMode workspaceMode) throws IOException, GitAPIException {
+    this(configuration, workspaceMode, false);
+  }
 
-  public JGit() throws IOException, GitAPIException {
+  /**
+   * @param trunkTipOnly whether to fetch only the tip of the trunk into a bare repository instead of opening
+   *                     the workspace
+   */
+  private JGit(RunConfiguration configuration, GitWorkspaceMode workspaceMode, boolean trunkTipOnly)
+      throws IOException, GitAPIException {
+    this.configuration = configuration;
     this.workingDir = Files.createTempDirectory("workspace").toFile();
-    this.gitPrivateKey = ApplicationConstants.CONST_GIT_REPOSITORY_PRIVATE_KEY;
-
-    String gitUsername = ApplicationConstants.CONST_GIT_USERNAME;
-    String gitPassword = ApplicationConstants.CONST_GIT_PASSWORD;
-
-    if (this.gitPrivateKey != null && !this.gitPrivateKey.isEmpty() && ApplicationConstants.CONST_GIT_REPOSITORY_URL != null
-        && ApplicationConstants.CONST_GIT_REPOSITORY_URL.startsWith("git@")) { //ssh connection starts with `git@`
-      git = Git.cloneRepository()
-          .setDirectory(workingDir)
-          .setTransportConfigCallback(new SshTransportConfigCallback())
-          .setURI(ApplicationConstants.CONST_GIT_REPOSITORY_URL)
-          .call();
-      log.info("Generating changelog from working branch [{}] with SSH Credentials", ApplicationConstants.CONST_GIT_WORKING_TRUNK_TO_BRANCH_FROM);
-
-    } else if (gitUsername != null && gitPassword != null && ApplicationConstants.CONST_GIT_REPOSITORY_URL != null
-        && ApplicationConstants.CONST_GIT_REPOSITORY_URL.startsWith("https://")){
-      git = Git.cloneRepository()
-          .setDirectory(workingDir)
-          .setURI(ApplicationConstants.CONST_GIT_REPOSITORY_URL)
-          .setCredentialsProvider(
-              new UsernamePasswordCredentialsProvider(ApplicationConstants.CONST_GIT_USERNAME,
-                  ApplicationConstants.CONST_GIT_PASSWORD))
-          .call();
-
-      log.info("Generating changelog from working branch [{}] with GIT User [{}]...", ApplicationConstants.CONST_GIT_WORKING_TRUNK_TO_BRANCH_FROM, ApplicationConstants.CONST_GIT_USERNAME);
+    this.gitPrivateKey = configuration.privateKey();
+    //tagging the trunk tip extracts no issues, so it does not need a project key
+    this.issueKeyExtractor = trunkTipOnly ? null
+        : new IssueKeyExtractor(configuration.projectKeys(), configuration.branchPrefixes());
+    //the partitioned history of a shallow clone would be cut off at its depth
+    if (ApplicationConstants.CONST_GIT_COMMIT_INDEX_DIR == null || trunkTipOnly
+        || workspaceMode == GitWorkspaceMode.SHALLOW) {
+      this.commitIssueIndex = null;
+    } else {
+      this.commitIssueIndex = new CommitIssueIndex(
+          CommitIssueIndex.indexFileFor(new File(ApplicationConstants.CONST_GIT_COMMIT_INDEX_DIR), configuration.repositoryUrl()),
+          getCommitIssueIndexSignature());
+    }
+
+    if (configuration.isSshConnection()) {
+      log.info("Generating changelog from working branch [{}] with SSH Credentials", configuration.workingTrunk());
+    } else if (configuration.isHttpsConnection()) {
+      log.info("Generating changelog from working branch [{}] with GIT User [{}]...", configuration.workingTrunk(), configuration.username());
+    } else if (configuration.isLocalConnection()) {
+      log.info("Generating changelog from working branch [{}] of local repository [{}]...", configuration.workingTrunk(), configuration.repositoryUrl());
     } else {
       log.info("GIT usage:");
-      log.info("    SSH or HTTPS only.");
+      log.info("    SSH, HTTPS or a local repository only.");
       log.info("    For SSH:");
       log.info("        Must provide env vars GIT_PRIVATE_KEY and GIT_REPO_URL. GIT_REPO_URL must start with `git@` for `git@<domain>/<repository>.git");
       log.info("    For HTTP:");
       log.info("        Must provide env vars GIT_USERNAME, GIT_PASSWORD, and GIT_REPO_URL. GIT_REPO_URL must start with `https://` for `https://<domain>/<repository>.git");
+      log.info("    For a local repository:");
+      log.info("        Must provide env var GIT_REPO_URL. GIT_REPO_URL must start with `file://` for `file:///<path>/<repository>.git");
 
       throw new RuntimeException("Unsupported GIT Operation");
     }
 
-    git.checkout().setName(ApplicationConstants.CONST_GIT_WORKING_TRUNK_TO_BRANCH_FROM).call();
+    GitWorkspaceManager workspaceManager = new GitWorkspaceManager(this::configureTransport,
+        new File(ApplicationConstants.CONST_GIT_WORKSPACE_CACHE_DIR), ApplicationConstants.CONST_GIT_SHALLOW_DEPTH);
+    if (trunkTipOnly) {
+      git = workspaceManager.fetchTrunkTip(configuration.repositoryUrl(), configuration.workingTrunk(), workingDir);
+    } else {
+      git = workspaceManager.open(workspaceMode, configuration.repositoryUrl(), configuration.workingTrunk(), workingDir);
+      if (workspaceMode == GitWorkspaceMode.SHALLOW) {
+        this.shallowWorkspaceManager = workspaceManager;
+        this.shallowDepth = ApplicationConstants.CONST_GIT_SHALLOW_DEPTH;
+      }
+
+      git.checkout().setName(configuration.workingTrunk()).call();
+    }
   }
 
-  public List<String> listTags() throws MissingObjectException, GitAPIException {
-    Set<String> tags = new LinkedHashSet<>();
+  /**
+   * Fetches only the commit at the tip of the trunk into a bare repository, enough to tag and push it
+   * without a checkout or any history
+   */
+  public static JGit openTrunkTip(RunConfiguration configuration) throws IOException, GitAPIException {
+    return new JGit(configuration, null, true);
+  }
+
+  /**
+   * Works on an already opened repository, e.g. a locally generated one, without cloning anything
+   */
+  JGit(Git git, File workingDir, IssueKeyExtractor issueKeyExtractor) {
+    this(git, workingDir, RunConfiguration.fromEnvironment(), issueKeyExtractor);
+  }
 
-    Iterable<RevCommit> commits = git.log().call();
-    for (RevCommit commit : commits) {
-      Map<ObjectId, String> namedCommits = git.nameRev().addPrefix(REFS_TAGS).add(commit).call();
-      if (namedCommits.containsKey(commit.getId()) && !namedCommits.get(commit.getId())
-          .contains("~")) {
-        tags.add(namedCommits.get(commit.getId()));
+  JGit(Git git, File workingDir, RunConfiguration configuration, IssueKeyExtractor issueKeyExtractor) {
+    this.configuration = configuration;
+    this.git = git;
+    this.workingDir = workingDir;
+    this.gitPrivateKey = null;
+    this.issueKeyExtractor = issueKeyExtractor;
+    this.commitIssueIndex = null;
+  }
+
+  private void configureTransport(TransportCommand<?, ?> command) {
+    if (this.configuration.isLocalConnection()) {
+      return;
+    }
+    if (this.configuration.isSshConnection()) {
+      if (this.sshTransportConfigCallback == null) {
+        this.sshTransportConfigCallback = new SshTransportConfigCallback();
+      }
+      command.setTransportConfigCallback(this.sshTransportConfigCallback);
+    } else {
+      if (this.credentialsProvider == null) {
+        this.credentialsProvider = new UsernamePasswordCredentialsProvider(this.configuration.username(),
+            this.configuration.password());
       }
+      command.setCredentialsProvider(this.credentialsProvider);
     }
+  }
 
-    return new ArrayList<>(tags);
+  public void setRunMetrics(RunMetrics runMetrics) {
+    this.runMetrics = runMetrics;
   }
 
-  public List<String> getAllIssuesSinceLastTag()
-      throws GitAPIException, MissingObjectException {
-    Set<String> issues = new LinkedHashSet<>();
-    Date dateOfLastTag = null;
-
-    //retrieve the date of the last tag
-    Iterable<RevCommit> commits = git.log().call();
-    for (RevCommit commit : commits) {
-      Map<ObjectId, String> namedCommits = git.nameRev().addPrefix(REFS_TAGS).add(commit).call();
-      if (namedCommits.containsKey(commit.getId())) {
-        dateOfLastTag = commit.getAuthorIdent().getWhen();
-        break;
+  public List<String> listTags() throws IOException {
+    return new ArrayList<>(getTagIndex().getTags());
+  }
+
+  /**
+   * @return the tags that are semantic versions, highest first, or every tag in walk order if none of them is
+   */
+  public List<String> listReleaseTags() throws IOException {
+    ReleaseTagIndex releaseTagIndex = getReleaseTagIndex();
+    return releaseTagIndex.isEmpty() ? listTags() : releaseTagIndex.getTagsNewestFirst();
+  }
+
+  /**
+   * @return the semantic version tags reachable from HEAD
+   */
+  public ReleaseTagIndex getReleaseTagIndex() throws IOException {
+    getTagIndex();
+    return this.releaseTagIndex;
+  }
+
+  /**
+   * @return the id of the commit the tag points at, or null if the tag is unknown
+   */
+  public String getTagCommitId(String tagName) throws IOException {
+    ObjectId tagCommit = getTagIndex().getCommit(tagName);
+    return tagCommit == null ? null : tagCommit.name();
+  }
+
+  /**
+   * The previous tag of a semantic version is the previous version, see {@link ReleaseTagIndex#getPrevious(String)},
+   * skipping any that point at the same commit. Other tags fall back to the previous tag in walk order.
+   *
+   * @return the tag the range of the given tag starts from, or null if the range starts at the first commit
+   */
+  public String getPreviousTag(String tagName) throws IOException {
+    TagIndex tagIndex = getTagIndex();
+    if (!this.releaseTagIndex.contains(tagName)) {
+      return tagIndex.getPreviousTag(tagName);
+    }
+
+    ObjectId tagCommit = tagIndex.getCommit(tagName);
+    String previousTag = this.releaseTagIndex.getPrevious(tagName);
+    while (previousTag != null && tagCommit.equals(tagIndex.getCommit(previousTag))) {
+      previousTag = this.releaseTagIndex.getPrevious(previousTag);
+    }
+    return previousTag;
+  }
+
+  /**
+   * The range starts at the newest tag reachable from HEAD, whatever its kind, so a release cut after its release
+   * candidates only holds the issues merged since the last of them. The range of the release's own tag, see
+   * {@link #getIssuesWithinTag(String)}, holds every issue since the previous release instead.
+   */
+  public List<String> getAllIssuesSinceLastTag() throws IOException {
+    ObjectId head = git.getRepository().resolve(Constants.HEAD);
+    ObjectId lastTagCommit;
+    //a tag beyond the history of a shallow clone is not in the index, so the range is only known once it is whole
+    do {
+      TagIndex tagIndex = getTagIndex();
+      List<String> tags = tagIndex.getTags();
+      lastTagCommit = tags.isEmpty() ? null : tagIndex.getCommit(tags.get(0));
+    } while (deepenIfBeyondShallowHistory(lastTagCommit, head));
+
+    //lastTag..HEAD
+    return getIssuesInRange(lastTagCommit, head);
+  }
+
+  public List<String> getIssuesWithinTag(String tagName) throws IOException {
+    return getIssuesWithinTag(tagName, Integer.MAX_VALUE);
+  }
+
+  /**
+   * @param indexedTagCount how many of the lowest ranked tags the commit index has to cover at most, fewer than the
+   *                        tag's own rank falls back to walking the range
+   */
+  private List<String> getIssuesWithinTag(String tagName, int indexedTagCount) throws IOException {
+    ObjectId tagCommit;
+    String previousTag;
+    do {
+      tagCommit = getTagIndex().getCommit(tagName);
+      previousTag = getPreviousTag(tagName);
+    } while (deepenIfBeyondShallowHistory(previousTag == null ? null : getTagIndex().getCommit(previousTag), tagCommit));
+
+    if (this.commitIssueIndex != null && tagCommit != null) {
+      List<String> indexedIssues = getIndexedIssuesWithinTag(tagName, previousTag, indexedTagCount);
+      if (indexedIssues != null) {
+        return indexedIssues;
       }
     }
 
-    // get all merged issues since the last tag
-    commits = git.log().call();
-    for (RevCommit commit : commits) {
-      if (commit.getAuthorIdent().getWhen().compareTo(dateOfLastTag) > 0
-          && commit.getShortMessage().contains(CONST_MERGE_PREAMBLE)) {
-        assert ApplicationConstants.CONST_JIRA_PROJECT_KEY != null;
-        if (commit.getShortMessage().contains(ApplicationConstants.CONST_JIRA_PROJECT_KEY)) {
-          issues.add(parseIssueKeyFromCommit(commit));
+    //previousTag..tag
+    return getIssuesInRange(previousTag == null ? null : getTagIndex().getCommit(previousTag), tagCommit);
+  }
+
+  /**
+   * A range of a shallow clone is only whole if none of the commits its history was cut off at lies within it.
+   * Otherwise the clone is deepened in SHALLOW mode, and anything else fails rather than report a truncated range.
+   *
+   * @return whether the clone was deepened, and so the range has to be looked up again
+   */
+  private boolean deepenIfBeyondShallowHistory(AnyObjectId since, AnyObjectId until) throws IOException {
+    Set<ObjectId> shallowCommits = git.getRepository().getObjectDatabase().getShallowCommits();
+    if (until == null || shallowCommits.isEmpty() || !isWithinRange(shallowCommits, since, until)) {
+      return false;
+    }
+
+    if (this.shallowWorkspaceManager == null || this.shallowDepth == Integer.MAX_VALUE) {
+      throw new RuntimeException("The range up to [" + until.name() + "] reaches beyond the shallow history of the repository");
+    }
+
+    this.shallowDepth = (int) Math.min(Integer.MAX_VALUE, this.shallowDepth * 4L);
+    try {
+      this.shallowWorkspaceManager.deepen(git, this.configuration.workingTrunk(), this.shallowDepth);
+    } catch (GitAPIException e) {
+      throw new RuntimeException(e);
+    }
+
+    //both hold commits parsed with the parents they had before the clone was deepened
+    this.tagIndex = null;
+    if (this.revWalk != null) {
+      this.revWalk.close();
+      this.revWalk = null;
+    }
+    return true;
+  }
+
+  private boolean isWithinRange(Set<ObjectId> commits, AnyObjectId since, AnyObjectId until) throws IOException {
+    try (RevWalk walk = new RevWalk(git.getRepository())) {
+      RevCommit untilCommit = walk.parseCommit(until);
+      RevCommit sinceCommit = since == null ? null : walk.parseCommit(since);
+      for (ObjectId commit : commits) {
+        RevCommit boundary = walk.parseCommit(commit);
+        if (walk.isMergedInto(boundary, untilCommit) && (sinceCommit == null || !walk.isMergedInto(boundary, sinceCommit))) {
+          return true;
         }
       }
     }
+    return false;
+  }
 
+  /**
+   * @return the issues of every tag, in the order of the given tags, see {@link #getIssuesWithinTags(List, BiConsumer)}
+   */
+  public Map<String, List<String>> getIssuesWithinTags(List<String> tagNames) throws IOException {
+    Map<String, List<String>> walkedIssues = new LinkedHashMap<>();
+    getIssuesWithinTags(tagNames, walkedIssues::put);
+
+    Map<String, List<String>> issuesByTag = new LinkedHashMap<>();
+    tagNames.forEach(tagName -> issuesByTag.put(tagName, walkedIssues.get(tagName)));
+    return issuesByTag;
+  }
+
+  /**
+   * The issues of several tags at once. Rather than walking the range of every tag, the history below them is
+   * partitioned, see {@link TagHistoryPartitioner}, in walks of `CHANGELOG_PARALLELISM` tags, lowest ranked first.
+   * Every walk leaves out the history the walks before it covered, so together they pass over each commit once,
+   * while the issues of a tag are handed over as soon as its walk is done, e.g. to fetch them from JIRA while the
+   * later tags are still walked. The commit index is kept in memory unless it is persisted anyway.
+   *
+   * @param issuesOfTag receives every given tag with its issues, lowest ranked tag first
+   */
+  public void getIssuesWithinTags(List<String> tagNames, BiConsumer<String, List<String>> issuesOfTag)
+      throws IOException {
+    //a shallow clone walks every range instead, deepening as it goes
+    boolean shallow = !git.getRepository().getObjectDatabase().getShallowCommits().isEmpty();
+    if (this.commitIssueIndex == null && tagNames.size() > 1 && !shallow) {
+      this.commitIssueIndex = new CommitIssueIndex(null, getCommitIssueIndexSignature());
+    }
+
+    Set<String> remainingTags = new LinkedHashSet<>(tagNames);
+    if (this.commitIssueIndex != null && !shallow) {
+      List<String> rankedTags = getRankedTags(getTagIndex());
+      //a persisted index already covers the tags of earlier runs
+      int indexedTags = 0;
+      while (indexedTags < rankedTags.size() && this.commitIssueIndex.covers(rankedTags.get(indexedTags))) {
+        indexedTags++;
+      }
+
+      int tagsPerWalk = Math.max(ApplicationConstants.CONST_CHANGELOG_PARALLELISM, 1);
+      int walkedTags = 0;
+      while (walkedTags < rankedTags.size() && !remainingTags.isEmpty()) {
+        int tagCount = Math.min(Math.max(indexedTags, walkedTags) + tagsPerWalk, rankedTags.size());
+        for (String tagName : rankedTags.subList(walkedTags, tagCount)) {
+          if (remainingTags.remove(tagName)) {
+            issuesOfTag.accept(tagName, getIssuesWithinTag(tagName, tagCount));
+          }
+        }
+        walkedTags = tagCount;
+      }
+    }
+
+    for (String tagName : remainingTags) {
+      issuesOfTag.accept(tagName, getIssuesWithinTag(tagName));
+    }
+  }
+
+  /**
+   * @return the issues of the tags ranked after the previous tag up to the given tag, or null if the commit index
+   * cannot answer for the range and it has to be walked
+   */
+  private List<String> getIndexedIssuesWithinTag(String tagName, String previousTag, int indexedTagCount)
+      throws IOException {
+    List<String> rankedTags = updateCommitIssueIndex(indexedTagCount);
+    int rank = rankedTags.indexOf(tagName);
+    int previousRank = previousTag == null ? -1 : rankedTags.indexOf(previousTag);
+    if (!this.commitIssueIndex.isOrdered() || rank < 0 || rank >= indexedTagCount
+        || (previousTag != null && previousRank < 0) || previousRank >= rank) {
+      return null;
+    }
+
+    //newest first, like a walk of the range
+    Set<String> issues = new LinkedHashSet<>();
+    for (int i = rank; i > previousRank; i--) {
+      issues.addAll(this.commitIssueIndex.getIssueKeys(rankedTags.get(i)));
+    }
     return new ArrayList<>(issues);
   }
 
-  public List<String> getIssuesWithinTag(String tagName)
-      throws GitAPIException, MissingObjectException {
+  /**
+   * Brings the commit index up to date with the lowest ranked tags, walking only the commits of tags it has not seen
+   * yet. The index is saved once it covers every tag.
+   *
+   * @param tagCount how many of the lowest ranked tags to index
+   * @return the tags, lowest rank first
+   */
+  private List<String> updateCommitIssueIndex(int tagCount) throws IOException {
+    TagIndex tagIndex = getTagIndex();
+    List<String> rankedTags = getRankedTags(tagIndex);
+    boolean everyTag = tagCount >= rankedTags.size();
+
+    if (this.commitIssueIndexTags != tagIndex) {
+      try (RunMetrics.Timer ignored = this.runMetrics.time(RunMetrics.PHASE_GIT_WALK)) {
+        long commitsWalked = this.commitIssueIndex.update(
+            new TagHistoryPartitioner(git.getRepository(), this::extractMergedIssueKeys),
+            everyTag ? rankedTags : rankedTags.subList(0, tagCount), tagIndex::getCommit);
+        this.runMetrics.increment(RunMetrics.COMMITS_WALKED, commitsWalked);
+      }
+      if (everyTag) {
+        this.commitIssueIndex.save();
+        this.commitIssueIndexTags = tagIndex;
+      }
+    }
+    return rankedTags;
+  }
+
+  /**
+   * @return the tags the commit index partitions the history by, lowest rank first
+   */
+  private List<String> getRankedTags(TagIndex tagIndex) {
+    List<String> rankedTags = new ArrayList<>(this.releaseTagIndex.isEmpty() ? tagIndex.getTags()
+        : this.releaseTagIndex.getTagsNewestFirst());
+    Collections.reverse(rankedTags);
+    return rankedTags;
+  }
+
+  private List<String> extractMergedIssueKeys(String shortMessage) {
+    return shortMessage.contains(CONST_MERGE_PREAMBLE) ? this.issueKeyExtractor.extract(shortMessage) : List.of();
+  }
+
+  private String getCommitIssueIndexSignature() {
+    return CONST_MERGE_PREAMBLE + "|" + String.join(",", this.configuration.projectKeys()) + "|"
+        + String.join(",", this.configuration.branchPrefixes());
+  }
+
+  private List<String> getIssuesInRange(AnyObjectId since, AnyObjectId until) throws IOException {
     Set<String> issues = new LinkedHashSet<>();
+    if (until == null) {
+      return new ArrayList<>(issues);
+    }
 
-    Iterable<RevCommit> commits = git.log().call();
-    for (RevCommit commit : commits) {
-      Map<ObjectId, String> namedCommits = git.nameRev().addPrefix(REFS_TAGS).add(commit).call();
-      if (namedCommits.containsKey(commit.getId())
-          && commit.getShortMessage().contains(CONST_MERGE_PREAMBLE)
-          && namedCommits.get(commit.getId()).contains(tagName)
-      ) {
-        issues.add(parseIssueKeyFromCommit(commit));
+    try (RunMetrics.Timer ignored = this.runMetrics.time(RunMetrics.PHASE_GIT_WALK)) {
+      long commitsExamined = this.mergeCommitFilter.getCommitsExamined();
+
+      RevWalk revWalk = getRevWalk();
+      revWalk.reset();
+      revWalk.sort(RevSort.NONE);
+      revWalk.setRetainBody(true);
+      revWalk.setRevFilter(this.mergeCommitFilter);
+      revWalk.markStart(revWalk.parseCommit(until));
+      if (since != null) {
+        revWalk.markUninteresting(revWalk.parseCommit(since));
+      }
+
+      for (RevCommit commit : revWalk) {
+        List<String> issueKeys = issueKeyExtractor.extract(commit.getShortMessage());
+        if (issueKeys.isEmpty()) {
+          log.debug("Unable to parse Issue Number from commit: [{}]", commit.getShortMessage());
+        }
+        issues.addAll(issueKeys);
+        commit.disposeBody();
       }
+
+      this.runMetrics.increment(RunMetrics.COMMITS_WALKED, this.mergeCommitFilter.getCommitsExamined() - commitsExamined);
     }
 
     return new ArrayList<>(issues);
   }
 
-  private String parseIssueKeyFromCommit(RevCommit commit) {
-    String unparsedIssueString;
+  private RevWalk getRevWalk() {
+    if (this.revWalk == null) {
+      this.revWalk = new RevWalk(git.getRepository());
+    }
+    return this.revWalk;
+  }
 
-    for (String gitFolder : typicalGitFolders) {
-      try {
-        unparsedIssueString = commit.getShortMessage()
-            .split(CONST_MERGE_PREAMBLE + " " + gitFolder + ApplicationConstants.CONST_JIRA_PROJECT_KEY)[1];
+  private TagIndex getTagIndex() throws IOException {
+    if (this.tagIndex == null) {
+      try (RunMetrics.Timer ignored = this.runMetrics.time(RunMetrics.PHASE_TAG_SCAN)) {
+        this.tagIndex = TagIndex.build(git.getRepository(), getRevWalk());
+        this.releaseTagIndex = ReleaseTagIndex.of(this.tagIndex.getTags());
+      }
+      this.runMetrics.increment(RunMetrics.TAGS_SCANNED, this.tagIndex.getTags().size());
+    }
+    return this.tagIndex;
+  }
 
-        return ApplicationConstants.CONST_JIRA_PROJECT_KEY + "-" + unparsedIssueString.split("-")[1];
-      } catch (IndexOutOfBoundsException e) { /* nothing to be done, continue */ }
+  /**
+   * Commits the changelog, tags and merges it into the working trunk, and then publishes the trunk and the
+   * new tag in a single atomic push, so either both refs are updated on the remote or neither is.
+   */
+  public void commitChangelogTagAndPush(String releaseName) throws GitAPIException, IOException {
+    commitChangelogAndPush(releaseName, true);
+  }
+
+  /**
+   * Commits the changelog and merges it into the working trunk like {@link #commitChangelogTagAndPush(String)}, but
+   * neither creates nor pushes a tag, e.g. for a regenerated changelog that is no release of its own
+   */
+  public void commitChangelogAndPush(String description) throws GitAPIException, IOException {
+    commitChangelogAndPush(description, false);
+  }
+
+  private void commitChangelogAndPush(String releaseName, boolean tagged) throws GitAPIException, IOException {
+    try (RunMetrics.Timer ignored = this.runMetrics.time(RunMetrics.PHASE_GIT_COMMIT)) {
+      if (ApplicationConstants.CONST_GIT_IN_MEMORY_COMMIT) {
+        commitAndTagInMemory(releaseName, tagged);
+      } else {
+        String changelogBranchName = checkoutChangelogBranchCommitAndTag(releaseName, tagged);
+
+        mergeChangelogBranchIntoWorkingTrunk(changelogBranchName);
+      }
+    }
+
+    String trunkRef = REFS_HEADS + this.configuration.workingTrunk();
+    List<RefSpec> refSpecs = new ArrayList<>();
+    refSpecs.add(new RefSpec(trunkRef + ":" + trunkRef));
+    if (tagged) {
+      refSpecs.add(new RefSpec(REFS_TAGS + releaseName + ":" + REFS_TAGS + releaseName));
+    }
+
+    PushCommand push = git.push()
+        .setAtomic(true)
+        .setRefSpecs(refSpecs);
+    configureTransport(push);
+
+    Iterable<PushResult> pushResults;
+    try (RunMetrics.Timer ignored = this.runMetrics.time(RunMetrics.PHASE_GIT_PUSH)) {
+      pushResults = push.call();
     }
 
-    log.info("Unable to parse Issue Number from commit: [{}]", commit.getShortMessage());
-    throw new RuntimeException("Unsupported Git Folder Structure");
+    List<String> failedRefs = printPushResultStatus(pushResults);
+    if (!failedRefs.isEmpty()) {
+      throw new RuntimeException("Unable to push " + failedRefs);
+    }
   }
 
-  public void commitChangelogTagAndPush(String releaseName) throws GitAPIException, IOException {
-    String changelogBranchName = checkoutChangelogBranchCommitAndTag(releaseName);
-
-    mergeChangelogBranchIntoWorkingTrunk(changelogBranchName);
-
-    Iterable<PushResult> pushResults = null;
-    if (this.gitPrivateKey != null && !this.gitPrivateKey.isEmpty() && ApplicationConstants.CONST_GIT_REPOSITORY_URL != null
-        && ApplicationConstants.CONST_GIT_REPOSITORY_URL.startsWith("git@")) {
-      pushResults = git.push()
-          .setPushTags()
-          .setTransportConfigCallback(new SshTransportConfigCallback())
-          .setRefSpecs(new RefSpec(REFS_HEADS + ApplicationConstants.CONST_GIT_WORKING_TRUNK_TO_BRANCH_FROM))
-          .setForce(true)
-          .call();
-    } else {
-      pushResults = git.push()
-          .setPushTags()
-          .setCredentialsProvider(new UsernamePasswordCredentialsProvider(ApplicationConstants.CONST_GIT_USERNAME,
-              ApplicationConstants.CONST_GIT_PASSWORD))
-          .setRefSpecs(new RefSpec(ApplicationConstants.CONST_GIT_WORKING_TRUNK_TO_BRANCH_FROM))
-          .setForce(true)
-          .call();
+  /**
+   * Lists the tags of the remote without fetching any of them
+   */
+  public List<String> listRemoteTags() throws GitAPIException {
+    LsRemoteCommand lsRemote = git.lsRemote()
+        .setRemote(Constants.DEFAULT_REMOTE_NAME)
+        .setTags(true);
+    configureTransport(lsRemote);
+
+    List<String> tags = new ArrayList<>();
+    for (Ref ref : lsRemote.call()) {
+      tags.add(Repository.shortenRefName(ref.getName()));
+    }
+    return tags;
+  }
+
+  /**
+   * Tags the tip of the trunk and pushes only the new tag. The remote already has the tagged commit, so all
+   * that is sent is the tag object itself.
+   */
+  public void tagTrunkTipAndPush(String releaseName) throws GitAPIException, IOException {
+    String tagRef = REFS_TAGS + releaseName;
+
+    try (RunMetrics.Timer ignored = this.runMetrics.time(RunMetrics.PHASE_GIT_COMMIT)) {
+      RevCommit trunkTip = getRevWalk().parseCommit(git.getRepository().resolve(REFS_HEADS + this.configuration.workingTrunk()));
+      git.tag().setObjectId(trunkTip).setName(releaseName).call();
+      this.tagIndex = null;
+      log.info("Tagged [{}] as [{}]...", trunkTip.name(), releaseName);
+    }
+
+    PushCommand push = git.push()
+        .setRemote(Constants.DEFAULT_REMOTE_NAME)
+        .setRefSpecs(new RefSpec(tagRef + ":" + tagRef));
+    configureTransport(push);
+
+    Iterable<PushResult> pushResults;
+    try (RunMetrics.Timer ignored = this.runMetrics.time(RunMetrics.PHASE_GIT_PUSH)) {
+      pushResults = push.call();
     }
 
-    printPushResultStatus(pushResults);;
+    List<String> failedRefs = printPushResultStatus(pushResults);
+    if (!failedRefs.isEmpty()) {
+      throw new RuntimeException("Unable to push " + failedRefs);
+    }
   }
 
   public void mergeChangelogBranchIntoWorkingTrunk(String changelogBranchName)
       throws IOException, GitAPIException {
     CheckoutCommand checkoutCmd = git.checkout();
-    checkoutCmd.setName(ApplicationConstants.CONST_GIT_WORKING_TRUNK_TO_BRANCH_FROM);
+    checkoutCmd.setName(this.configuration.workingTrunk());
     checkoutCmd.setCreateBranch(false);
     checkoutCmd.call();
 
@@ -224,7 +637,7 @@ public class JGit {
         .include(mergeBase)
         .setCommit(true)
         .setFastForward(MergeCommand.FastForwardMode.NO_FF)
-        .setMessage("Merged in [" + changelogBranchName + "] to [" + ApplicationConstants.CONST_GIT_WORKING_TRUNK_TO_BRANCH_FROM + "]")
+        .setMessage("Merged in [" + changelogBranchName + "] to [" + this.configuration.workingTrunk() + "]")
         .call();
 
     log.info("Merge Successful: [{}], Merge Status: [{}]...", merge.getMergeStatus().isSuccessful(), merge.getMergeStatus());
@@ -239,7 +652,7 @@ public class JGit {
     }
   }
 
-  private String checkoutChangelogBranchCommitAndTag(String releaseName) throws GitAPIException {
+  private String checkoutChangelogBranchCommitAndTag(String releaseName, boolean tagged) throws GitAPIException {
     String changelogBranchName = "update-changelog-" + new Date().getTime();
     git.checkout().setCreateBranch(true).setName(changelogBranchName).call();
 
@@ -250,32 +663,103 @@ public class JGit {
     commitCommand.setMessage("Generated Changelog for release [" + releaseName + "] at [" + LocalDateTime.now() + "]");
     RevCommit commit = commitCommand.call();
 
-    TagCommand tagCommand = git.tag();
-    tagCommand.setObjectId(commit);
-    tagCommand.setName(releaseName);
-    tagCommand.call();
-
-    Iterable<PushResult> pushResults = null;
-    if (this.gitPrivateKey != null && !this.gitPrivateKey.isEmpty() && ApplicationConstants.CONST_GIT_REPOSITORY_URL != null
-        && ApplicationConstants.CONST_GIT_REPOSITORY_URL.startsWith("git@")) {
-      pushResults = git.push()
-          .setPushTags()
-          .setTransportConfigCallback(new SshTransportConfigCallback())
-          .call();
-    } else {
-      pushResults = git.push()
-          .setPushTags()
-          .setCredentialsProvider(new UsernamePasswordCredentialsProvider(ApplicationConstants.CONST_GIT_USERNAME,
-              ApplicationConstants.CONST_GIT_PASSWORD))
-          .call();
+    if (tagged) {
+      TagCommand tagCommand = git.tag();
+      tagCommand.setObjectId(commit);
+      tagCommand.setName(releaseName);
+      tagCommand.call();
+      this.tagIndex = null;
     }
 
-    printPushResultStatus(pushResults);
-
     return changelogBranchName;
   }
 
-  private void printPushResultStatus(Iterable<PushResult> pushResults) {
+  /**
+   * Produces the same history as checking out a changelog branch, committing, tagging and merging it back, but
+   * writes the blobs, tree and commits straight into the object database. Neither the working tree nor the
+   * index is touched, only the trunk ref and the new tag, if tagged, are updated. The tag is only created once
+   * the trunk points at the changelog, so a failed update leaves no tag on an unreachable commit.
+   */
+  void commitAndTagInMemory(String releaseName, boolean tagged) throws GitAPIException, IOException {
+    Repository repository = git.getRepository();
+    String trunkRef = REFS_HEADS + this.configuration.workingTrunk();
+    ObjectId trunkId = repository.resolve(trunkRef);
+    PersonIdent author = new PersonIdent("project-release-notes", "no@no.com");
+
+    try (ObjectInserter inserter = repository.newObjectInserter();
+        ObjectReader reader = inserter.newReader();
+        RevWalk revWalk = new RevWalk(reader)) {
+      RevCommit trunkCommit = revWalk.parseCommit(trunkId);
+
+      DirCache index = DirCache.newInCore();
+      DirCacheBuilder builder = index.builder();
+      builder.addTree(new byte[0], DirCacheEntry.STAGE_0, reader, trunkCommit.getTree());
+      builder.finish();
+
+      //same as `git add changelog`, new and modified files are staged while deletions are not
+      DirCacheEditor editor = index.editor();
+      Path changelogDirectory = this.workingDir.toPath().resolve(ChangelogGenerator.CHANGELOG_DIRECTORY_NAME);
+      try (Stream<Path> changelogFiles = Files.walk(changelogDirectory)) {
+        for (Path changelogFile : changelogFiles.filter(Files::isRegularFile).toList()) {
+          ObjectId blobId = inserter.insert(Constants.OBJ_BLOB, Files.readAllBytes(changelogFile));
+          String path = this.workingDir.toPath().relativize(changelogFile).toString().replace(File.separatorChar, '/');
+          editor.add(new PathEdit(path) {
+            @Override
+            public void apply(DirCacheEntry entry) {
+              entry.setFileMode(FileMode.REGULAR_FILE);
+              entry.setObjectId(blobId);
+            }
+          });
+        }
+      }
+      editor.finish();
+      ObjectId treeId = index.writeTree(inserter);
+
+      CommitBuilder changelogCommit = new CommitBuilder();
+      changelogCommit.setTreeId(treeId);
+      changelogCommit.setParentId(trunkCommit);
+      changelogCommit.setAuthor(author);
+      changelogCommit.setCommitter(author);
+      changelogCommit.setMessage("Generated Changelog for release [" + releaseName + "] at [" + LocalDateTime.now() + "]");
+      ObjectId changelogCommitId = inserter.insert(changelogCommit);
+      ObjectId newTrunkId = changelogCommitId;
+
+      if (ApplicationConstants.CONST_GIT_CHANGELOG_MERGE_COMMIT) {
+        //the tree is unchanged, the merge only keeps the history shaped like the branch based flow
+        CommitBuilder mergeCommit = new CommitBuilder();
+        mergeCommit.setTreeId(treeId);
+        mergeCommit.setParentIds(trunkCommit, changelogCommitId);
+        mergeCommit.setAuthor(author);
+        mergeCommit.setCommitter(author);
+        mergeCommit.setMessage("Merged in [update-changelog-" + releaseName + "] to [" + this.configuration.workingTrunk() + "]");
+        newTrunkId = inserter.insert(mergeCommit);
+      }
+
+      inserter.flush();
+
+      RefUpdate trunkUpdate = repository.updateRef(trunkRef);
+      trunkUpdate.setExpectedOldObjectId(trunkId);
+      trunkUpdate.setNewObjectId(newTrunkId);
+      trunkUpdate.setRefLogMessage("changelog: " + releaseName, false);
+      RefUpdate.Result result = trunkUpdate.update(revWalk);
+      if (result != RefUpdate.Result.FAST_FORWARD && result != RefUpdate.Result.NEW) {
+        throw new IOException("Unable to move [" + trunkRef + "] to the changelog commit: " + result);
+      }
+
+      if (tagged) {
+        git.tag().setObjectId(revWalk.parseCommit(changelogCommitId)).setName(releaseName).call();
+        this.tagIndex = null;
+      }
+
+      log.info("Committed changelog [{}] onto [{}] without touching the working tree...", newTrunkId.name(), trunkRef);
+    }
+  }
+
+  /**
+   * @return the remote refs that were not updated
+   */
+  private List<String> printPushResultStatus(Iterable<PushResult> pushResults) {
+    List<String> failedRefs = new ArrayList<>();
     pushResults.forEach(pushResult -> {
       pushResult.getRemoteUpdates().forEach(remoteRefUpdate -> {
             if ((remoteRefUpdate.getStatus().compareTo(Status.UP_TO_DATE) == 0) //Ref is up to date
@@ -285,16 +769,35 @@ public class JGit {
             } else {
               log.warn("Push Ref: [{}], Push Status: [{}], Push Error Message: [{}]...",
                   remoteRefUpdate.getRemoteName(), remoteRefUpdate.getStatus(), remoteRefUpdate.getMessage());
+              failedRefs.add(remoteRefUpdate.getRemoteName());
             }
           }
       );
     });
+    return failedRefs;
   }
 
   public File getWorkingDir() {
     return this.workingDir;
   }
 
+  /**
+   * Releases the repository and deletes the working copy, a mirror it borrowed its objects from is kept
+   */
+  @Override
+  public void close() {
+    if (this.revWalk != null) {
+      this.revWalk.close();
+    }
+    this.git.close();
+
+    try {
+      FileUtils.delete(this.workingDir, FileUtils.RECURSIVE | FileUtils.RETRY | FileUtils.SKIP_MISSING);
+    } catch (IOException e) {
+      log.warn("Unable to delete the working copy at [{}]: [{}]", this.workingDir, e.getMessage());
+    }
+  }
+
   private class SshTransportConfigCallback implements TransportConfigCallback {
 
     private final SshSessionFactory sshSessionFactory = new JschConfigSessionFactory() {
@@ -313,13 +816,20 @@ public class JGit {
       }
     };
 
-    private File createPrivateKeyFile() {
+    private File privateKeyFile;
+
+    private synchronized File createPrivateKeyFile() {
+      if (this.privateKeyFile != null) {
+        return this.privateKeyFile;
+      }
       try {
         File privateKeyFile = Files.createTempFile("id_rsa", "").toFile();
+        privateKeyFile.deleteOnExit();
         FileOutputStream outputStream = new FileOutputStream(privateKeyFile);
         byte[] strToBytes = gitPrivateKey.getBytes();
         outputStream.write(strToBytes);
         outputStream.close();
+        this.privateKeyFile = privateKeyFile;
         return privateKeyFile;
       } catch (IOException e) {
         throw new RuntimeException(e);
@@ -333,4 +843,32 @@ public class JGit {
     }
 
   }
+
+  /**
+   * Only lets through the merge commits, i.e. those whose subject line carries the merge preamble
+   */
+  private static class MergeCommitRevFilter extends RevFilter {
+
+    private final String mergePreamble;
+    private long commitsExamined;
+
+    private MergeCommitRevFilter(String mergePreamble) {
+      this.mergePreamble = mergePreamble;
+    }
+
+    @Override
+    public boolean include(RevWalk walker, RevCommit commit) {
+      this.commitsExamined++;
+      return commit.getShortMessage().contains(this.mergePreamble);
+    }
+
+    private long getCommitsExamined() {
+      return this.commitsExamined;
+    }
+
+    @Override
+    public RevFilter clone() {
+      return this;
+    }
+  }
 }
@@ -1,49 +1,361 @@
 package com.blessedmusicalturkeys.projectreleasenotes.utilities;
 
-import com.atlassian.jira.rest.client.api.IssueRestClient;
 import com.atlassian.jira.rest.client.api.JiraRestClient;
 import com.atlassian.jira.rest.client.api.JiraRestClientFactory;
 import com.atlassian.jira.rest.client.api.RestClientException;
 import com.atlassian.jira.rest.client.api.domain.Issue;
+import com.atlassian.jira.rest.client.api.domain.SearchResult;
 import com.atlassian.jira.rest.client.internal.async.AsynchronousJiraRestClientFactory;
 import com.blessedmusicalturkeys.projectreleasenotes.constants.ApplicationConstants;
+import com.blessedmusicalturkeys.projectreleasenotes.domain.JiraIssue;
+import java.io.File;
+import java.net.SocketTimeoutException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import lombok.extern.slf4j.Slf4j;
 
 /**
  * For those projects using JIRA to track issues, this class will connect to your JIRA
  * and link the tickets within source control to the generated changelogs/release notes
  *
+ * Every request goes through an {@link AdaptiveConcurrencyLimiter}, so throttled requests are retried with backoff
+ * and the number of requests in flight settles where JIRA stops throttling. Issues JIRA does not know are skipped,
+ * while any other failure, e.g. a rejected login, a server error or a request that is still throttled after all
+ * retries, fails the run rather than dropping its issues.
+ *
  * TODO: A ticket client factory that we pull from based on input args
  *
  * @author Timothy Stratton
  */
+@Slf4j
 public class JiraClient {
 
-  private final JiraRestClient client;
+  //summary, issuetype, created, updated, project and status are required by the search result parser
+  private static final Set<String> ISSUE_FIELDS = Set.of("summary", "issuetype", "created", "updated", "project",
+      "status", "description");
+
+  //JQL dates are interpreted in the service account's timezone, so revalidation looks back a little further
+  private static final Duration REVALIDATION_MARGIN = Duration.ofDays(1);
+  private static final DateTimeFormatter JQL_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy/MM/dd HH:mm")
+      .withZone(ZoneOffset.UTC);
+  //rate limited, or a gateway or JIRA itself is briefly unavailable
+  private static final Set<Integer> THROTTLED_STATUS_CODES = Set.of(429, 502, 503, 504);
+  //how JIRA answers a search for a key it does not know, or one the service account may not see
+  private static final Set<Integer> UNKNOWN_ISSUE_STATUS_CODES = Set.of(400, 404);
 
+  private final URI uri;
+  private final JiraIssueCache issueCache;
+  //shared by every request of the client, so a long-lived client keeps the limit it has learned
+  private final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(
+      ApplicationConstants.CONST_JIRA_FETCH_PARALLELISM, ApplicationConstants.CONST_JIRA_MAX_RETRIES, JiraClient::isThrottled);
+  private volatile JiraRestClient client;
+  private RunMetrics runMetrics = RunMetrics.DISABLED;
+
+  /**
+   * Only the URL is checked here, the REST client is built on the first request that actually
+   * has to go to JIRA, so a release without new issues never pays for it
+   */
   public JiraClient() throws URISyntaxException {
-    JiraRestClientFactory factory = new AsynchronousJiraRestClientFactory();
+    this.uri = new URI(ApplicationConstants.CONST_JIRA_BASE_URL);
+
+    if (ApplicationConstants.CONST_JIRA_ISSUE_CACHE_DIR != null && !ApplicationConstants.CONST_JIRA_ISSUE_CACHE_DIR.isBlank()) {
+      this.issueCache = new JiraIssueCache(new File(ApplicationConstants.CONST_JIRA_ISSUE_CACHE_DIR),
+          ApplicationConstants.CONST_JIRA_ISSUE_CACHE_MAX_ENTRIES,
+          Duration.ofHours(ApplicationConstants.CONST_JIRA_ISSUE_CACHE_TTL_HOURS));
+    } else {
+      this.issueCache = null;
+    }
+  }
+
+  /**
+   * Talks to the JIRA at the given URI without an issue cache, e.g. a local stub server
+   */
+  JiraClient(URI uri) {
+    this.uri = uri;
+    this.issueCache = null;
+  }
 
-    URI uri = new URI(ApplicationConstants.CONST_JIRA_BASE_URL);
-    this.client = factory.createWithBasicHttpAuthentication(uri, ApplicationConstants.CONST_JIRA_USER_NAME,
-        ApplicationConstants.CONST_JIRA_API_KEY);
+  public void setRunMetrics(RunMetrics runMetrics) {
+    this.runMetrics = runMetrics;
   }
 
-  public Issue getIssue(String issueKey) {
-    IssueRestClient issueRestClient = this.client.getIssueClient();
+  private JiraRestClient getClient() {
+    JiraRestClient jiraRestClient = this.client;
+    if (jiraRestClient == null) {
+      synchronized (this) {
+        jiraRestClient = this.client;
+        if (jiraRestClient == null) {
+          log.info("Connecting to JIRA at [{}]...", this.uri);
+          try (RunMetrics.Timer ignored = this.runMetrics.time(RunMetrics.PHASE_JIRA_CONNECT)) {
+            JiraRestClientFactory factory = new AsynchronousJiraRestClientFactory();
+            jiraRestClient = factory.createWithBasicHttpAuthentication(this.uri, ApplicationConstants.CONST_JIRA_USER_NAME,
+                ApplicationConstants.CONST_JIRA_API_KEY);
+          }
+          this.client = jiraRestClient;
+        }
+      }
+    }
+    return jiraRestClient;
+  }
 
+  /**
+   * Looks the issue up with a `key = ...` search rather than through the issue resource, which always expands the
+   * names, schema and transitions of the issue along with every one of its fields. The search only returns the fields
+   * of {@link #ISSUE_FIELDS}, and the issue is mapped to a {@link JiraIssue} straight away.
+   *
+   * @return the issue, or null if JIRA does not know it or the service account may not see it
+   * @throws RuntimeException if JIRA failed the request for any other reason, or kept throttling it
+   */
+  public JiraIssue getIssue(String issueKey) {
     try {
-      return issueRestClient.getIssue(issueKey).claim();
+      Iterator<Issue> issues = search("key = " + issueKey, 1, 0).getIssues().iterator();
+      if (issues.hasNext()) {
+        return toJiraIssue(issues.next());
+      }
+      log.info("Skipping issue [{}] as JIRA did not find it", issueKey);
     } catch (RestClientException e) {
-      return null;
+      if (!isUnknownIssue(e)) {
+        throw e;
+      }
+      log.info("Skipping issue [{}] as JIRA answered with status [{}]", issueKey, e.getStatusCode().orElse(null));
+    }
+    this.runMetrics.increment(RunMetrics.JIRA_ISSUES_MISSING);
+    return null;
+  }
+
+  /**
+   * Persists the issue cache, if enabled and changed. Called once at the end of a run rather than after every fetch,
+   * since the tags of `--full` are fetched concurrently and every save writes the whole cache.
+   */
+  public void saveIssueCache() {
+    if (this.issueCache != null) {
+      this.issueCache.save();
+    }
+  }
+
+  /**
+   * @return the number of requests currently allowed in flight, see {@link AdaptiveConcurrencyLimiter}
+   */
+  public int getConcurrencyLimit() {
+    return this.limiter.getLimit();
+  }
+
+  /**
+   * Fetches the issues in `key in (...)` search batches, dispatching the batches concurrently.
+   *
+   * When the issue cache is enabled only the keys that are not cached are fetched, and stale
+   * cache entries are revalidated with `updated >` searches. The cache is only written by {@link #saveIssueCache()}.
+   *
+   * @return the issues that could be found, in the same order as the given keys
+   */
+  public List<JiraIssue> getIssueList(List<String> issueKeys) {
+    if (issueKeys.isEmpty()) {
+      return List.of();
+    }
+
+    try (RunMetrics.Timer ignored = this.runMetrics.time(RunMetrics.PHASE_JIRA_FETCH)) {
+      Map<String, JiraIssue> issuesByKey = new HashMap<>();
+      List<String> keysToFetch = issueKeys;
+
+      if (this.issueCache != null) {
+        Map<String, JiraIssue> freshIssues = this.issueCache.getFresh(issueKeys);
+        Map<String, JiraIssue> staleIssues = this.issueCache.getStale(issueKeys);
+        issuesByKey.putAll(freshIssues);
+        issuesByKey.putAll(revalidateStaleIssues(staleIssues));
+        keysToFetch = issueKeys.stream().filter(issueKey -> !issuesByKey.containsKey(issueKey)).toList();
+        this.runMetrics.increment(RunMetrics.JIRA_CACHE_HITS, freshIssues.size());
+        this.runMetrics.increment(RunMetrics.JIRA_CACHE_REVALIDATED, issuesByKey.size() - freshIssues.size());
+        this.runMetrics.increment(RunMetrics.JIRA_CACHE_MISSES, keysToFetch.size());
+        log.info("JIRA issue cache answered [{}] of [{}] issues...", issuesByKey.size(), issueKeys.size());
+      }
+
+      Map<String, JiraIssue> fetchedIssues = fetchIssues(keysToFetch);
+      issuesByKey.putAll(fetchedIssues);
+
+      if (this.issueCache != null) {
+        fetchedIssues.forEach(this.issueCache::put);
+      }
+
+      return issueKeys.stream().map(issuesByKey::get).filter(Objects::nonNull).toList();
     }
   }
 
-  public List<Issue> getIssueList(List<String> issueKeys) {
-    return issueKeys.stream().map(this::getIssue).filter(Objects::nonNull).toList();
+  /**
+   * Asks JIRA which of the stale issues were updated since they were cached, in `key in (...) AND updated > ...`
+   * batches, so only the stale issues themselves are searched rather than everything updated in their projects
+   */
+  private Map<String, JiraIssue> revalidateStaleIssues(Map<String, JiraIssue> staleIssues) {
+    Map<String, JiraIssue> revalidatedIssues = new HashMap<>();
+
+    for (List<String> batch : partition(new ArrayList<>(staleIssues.keySet()), ApplicationConstants.CONST_JIRA_FETCH_BATCH_SIZE)) {
+      Instant updatedSince = this.issueCache.getOldestFetch(batch).minus(REVALIDATION_MARGIN);
+      String jql = "key in (" + String.join(",", batch) + ") AND updated > \""
+          + JQL_DATE_FORMAT.format(updatedSince) + "\"";
+
+      Map<String, JiraIssue> updatedIssues = new HashMap<>();
+      try {
+        for (Issue issue : search(jql, batch.size(), 0).getIssues()) {
+          updatedIssues.put(issue.getKey(), toJiraIssue(issue));
+        }
+      } catch (RestClientException e) {
+        if (!isUnknownIssue(e)) {
+          throw e;
+        }
+        //a key that no longer exists fails the whole query, the batch is refetched like a cache miss
+        log.warn("Unable to revalidate [{}] stale JIRA issues, refetching them instead: [{}]", batch.size(), e.getMessage());
+        continue;
+      }
+
+      for (String issueKey : batch) {
+        JiraIssue updatedIssue = updatedIssues.get(issueKey);
+        if (updatedIssue != null) {
+          this.issueCache.put(issueKey, updatedIssue);
+          revalidatedIssues.put(issueKey, updatedIssue);
+        } else {
+          //not updated since it was cached, so it is still current
+          this.issueCache.touch(issueKey);
+          revalidatedIssues.put(issueKey, staleIssues.get(issueKey));
+        }
+      }
+    }
+
+    return revalidatedIssues;
+  }
+
+  private Map<String, JiraIssue> fetchIssues(List<String> issueKeys) {
+    List<List<String>> batches = partition(issueKeys, ApplicationConstants.CONST_JIRA_FETCH_BATCH_SIZE);
+    Map<String, JiraIssue> issuesByKey = new HashMap<>();
+    if (batches.isEmpty()) {
+      return issuesByKey;
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool(
+        Math.min(Math.max(ApplicationConstants.CONST_JIRA_FETCH_PARALLELISM, 1), batches.size()));
+    try {
+      List<Future<Map<String, JiraIssue>>> fetches = new ArrayList<>();
+      for (List<String> batch : batches) {
+        fetches.add(executor.submit(() -> getIssueBatch(batch)));
+      }
+
+      for (Future<Map<String, JiraIssue>> fetch : fetches) {
+        issuesByKey.putAll(fetch.get());
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    } catch (ExecutionException e) {
+      throw new RuntimeException(e.getCause());
+    } finally {
+      executor.shutdownNow();
+    }
+
+    return issuesByKey;
+  }
+
+  private Map<String, JiraIssue> getIssueBatch(List<String> issueKeys) {
+    Map<String, JiraIssue> issuesByKey = new HashMap<>();
+
+    try {
+      SearchResult searchResult = search("key in (" + String.join(",", issueKeys) + ")", issueKeys.size(), 0);
+      searchResult.getIssues().forEach(issue -> issuesByKey.put(issue.getKey(), toJiraIssue(issue)));
+    } catch (RestClientException e) {
+      if (!isUnknownIssue(e)) {
+        throw e;
+      }
+      //a single unknown key fails the whole query, so the batch is retried key by key below
+      log.debug("Batch search failed, falling back to single issue lookups: [{}]", e.getMessage());
+    }
+
+    //also picks up issues that were moved and now answer to a different key
+    for (String issueKey : issueKeys) {
+      if (!issuesByKey.containsKey(issueKey)) {
+        JiraIssue issue = getIssue(issueKey);
+        if (issue != null) {
+          issuesByKey.put(issueKey, issue);
+        }
+      }
+    }
+
+    return issuesByKey;
+  }
+
+  private SearchResult search(String jql, int maxResults, int startAt) {
+    return this.limiter.call(() -> {
+      this.runMetrics.increment(RunMetrics.JIRA_REQUESTS);
+      return searchJql(jql, maxResults, startAt);
+    }, this.runMetrics);
+  }
+
+  /**
+   * A single search request, without retries
+   */
+  SearchResult searchJql(String jql, int maxResults, int startAt) {
+    return getClient().getSearchClient().searchJql(jql, maxResults, startAt, ISSUE_FIELDS).claim();
+  }
+
+  /**
+   * Only a `400` or a `404` means JIRA does not know one of the searched keys. Lookups skip those keys and rethrow
+   * every other failure, including a throttled request that has exhausted its retries.
+   */
+  private static boolean isUnknownIssue(RestClientException e) {
+    return e.getStatusCode().map(UNKNOWN_ISSUE_STATUS_CODES::contains).orElse(false);
+  }
+
+  /**
+   * A `429`, or a `502`, `503` or `504` of JIRA or a gateway in front of it, asks to come back later. A request that
+   * got no answer is retried like a throttled one only if it timed out, any other failure, e.g. a refused connection,
+   * a 404 or a malformed query, is not.
+   */
+  private static boolean isThrottled(RuntimeException e) {
+    if (!(e instanceof RestClientException restClientException)) {
+      return false;
+    }
+    Optional<Integer> statusCode = restClientException.getStatusCode();
+    if (statusCode.isPresent()) {
+      return THROTTLED_STATUS_CODES.contains(statusCode.get());
+    }
+    for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+      if (cause instanceof SocketTimeoutException) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static JiraIssue toJiraIssue(Issue issue) {
+    return new JiraIssue(issue.getKey(),
+        issue.getIssueType() == null ? null : issue.getIssueType().getName(),
+        issue.getSummary(),
+        issue.getDescription(),
+        issue.getUpdateDate() == null ? null : Instant.ofEpochMilli(issue.getUpdateDate().getMillis()));
+  }
+
+  private static List<List<String>> partition(List<String> issueKeys, int batchSize) {
+    List<List<String>> batches = new ArrayList<>();
+    List<String> distinctKeys = new ArrayList<>(new LinkedHashSet<>(issueKeys));
+    int size = Math.max(batchSize, 1);
+
+    for (int i = 0; i < distinctKeys.size(); i += size) {
+      batches.add(distinctKeys.subList(i, Math.min(i + size, distinctKeys.size())));
+    }
+    return batches;
   }
 
 }
@@ -0,0 +1,225 @@
+package com.blessedmusicalturkeys.projectreleasenotes.utilities;
+
+import com.blessedmusicalturkeys.projectreleasenotes.domain.JiraIssue;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Size-bounded, least-recently-used cache of JIRA issues that is persisted to disk between runs.
+ * Entries older than the TTL are handed back as stale so they can be revalidated against JIRA.
+ *
+ * The cache file is plain text, one tab separated entry per line, least recently used first, so reading it back
+ * never instantiates anything but strings and the {@link JiraIssue} records built from them. Tabs, line breaks and
+ * backslashes within a value are escaped, and a missing value is written as `\N`.
+ *
+ * @author Timothy Stratton
+ */
+@Slf4j
+public class JiraIssueCache {
+
+  private static final String CACHE_FILE_NAME = "jira-issues.tsv";
+  private static final String FORMAT_HEADER = "#jira-issues\t1";
+  private static final String NULL_VALUE = "\\N";
+  private static final int FIELD_COUNT = 7;
+
+  private final Path cacheFile;
+  private final Duration timeToLive;
+  private final LinkedHashMap<String, CachedIssue> entries;
+  private boolean modified;
+
+  public JiraIssueCache(File cacheDirectory, int maxEntries, Duration timeToLive) {
+    this.cacheFile = cacheDirectory.toPath().resolve(CACHE_FILE_NAME);
+    this.timeToLive = timeToLive;
+    this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, CachedIssue> eldest) {
+        return size() > maxEntries;
+      }
+    };
+
+    load();
+  }
+
+  /**
+   * @return the cached issues that are still within the TTL, keyed by issue key
+   */
+  public synchronized Map<String, JiraIssue> getFresh(Collection<String> issueKeys) {
+    Map<String, JiraIssue> freshIssues = new HashMap<>();
+    Instant freshAfter = Instant.now().minus(this.timeToLive);
+
+    for (String issueKey : issueKeys) {
+      CachedIssue cachedIssue = this.entries.get(issueKey);
+      if (cachedIssue != null && cachedIssue.fetchedAt().isAfter(freshAfter)) {
+        freshIssues.put(issueKey, cachedIssue.issue());
+      }
+    }
+    return freshIssues;
+  }
+
+  /**
+   * @return the cached issues that have outlived the TTL, keyed by issue key
+   */
+  public synchronized Map<String, JiraIssue> getStale(Collection<String> issueKeys) {
+    Map<String, JiraIssue> staleIssues = new HashMap<>();
+    Instant freshAfter = Instant.now().minus(this.timeToLive);
+
+    for (String issueKey : issueKeys) {
+      CachedIssue cachedIssue = this.entries.get(issueKey);
+      if (cachedIssue != null && !cachedIssue.fetchedAt().isAfter(freshAfter)) {
+        staleIssues.put(issueKey, cachedIssue.issue());
+      }
+    }
+    return staleIssues;
+  }
+
+  /**
+   * @return when the oldest of the given cached issues was last fetched or revalidated, or null if none are cached
+   */
+  public synchronized Instant getOldestFetch(Collection<String> issueKeys) {
+    Instant oldestFetch = null;
+    for (String issueKey : issueKeys) {
+      CachedIssue cachedIssue = this.entries.get(issueKey);
+      if (cachedIssue != null && (oldestFetch == null || cachedIssue.fetchedAt().isBefore(oldestFetch))) {
+        oldestFetch = cachedIssue.fetchedAt();
+      }
+    }
+    return oldestFetch;
+  }
+
+  public synchronized void put(String issueKey, JiraIssue issue) {
+    this.entries.put(issueKey, new CachedIssue(issue, Instant.now()));
+    this.modified = true;
+  }
+
+  /**
+   * Marks an entry as revalidated, i.e. JIRA confirmed it has not changed since it was cached
+   */
+  public synchronized void touch(String issueKey) {
+    CachedIssue cachedIssue = this.entries.get(issueKey);
+    if (cachedIssue != null) {
+      this.entries.put(issueKey, new CachedIssue(cachedIssue.issue(), Instant.now()));
+      this.modified = true;
+    }
+  }
+
+  /**
+   * Writes the cache to disk if it changed since it was loaded or last saved
+   */
+  public synchronized void save() {
+    if (!this.modified) {
+      return;
+    }
+
+    try {
+      Files.createDirectories(this.cacheFile.getParent());
+      Path tempFile = Files.createTempFile(this.cacheFile.getParent(), CACHE_FILE_NAME, ".tmp");
+
+      try (BufferedWriter writer = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8)) {
+        writer.write(FORMAT_HEADER);
+        writer.newLine();
+        //least recently used first, so re-inserting on load restores the LRU order
+        for (Map.Entry<String, CachedIssue> entry : this.entries.entrySet()) {
+          JiraIssue issue = entry.getValue().issue();
+          writer.write(String.join("\t",
+              escape(entry.getKey()),
+              String.valueOf(entry.getValue().fetchedAt().toEpochMilli()),
+              escape(issue.key()),
+              escape(issue.type()),
+              escape(issue.summary()),
+              escape(issue.description()),
+              issue.updated() == null ? NULL_VALUE : String.valueOf(issue.updated().toEpochMilli())));
+          writer.newLine();
+        }
+      }
+
+      Files.move(tempFile, this.cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      this.modified = false;
+    } catch (IOException e) {
+      log.warn("Unable to persist the JIRA issue cache to [{}]: [{}]", this.cacheFile, e.getMessage());
+    }
+  }
+
+  private void load() {
+    if (!Files.exists(this.cacheFile)) {
+      return;
+    }
+
+    try (BufferedReader reader = Files.newBufferedReader(this.cacheFile, StandardCharsets.UTF_8)) {
+      if (!FORMAT_HEADER.equals(reader.readLine())) {
+        throw new IOException("Unknown cache format");
+      }
+
+      String line;
+      while ((line = reader.readLine()) != null) {
+        String[] fields = line.split("\t", -1);
+        if (fields.length != FIELD_COUNT) {
+          throw new IOException("Malformed cache entry [" + line + "]");
+        }
+        JiraIssue issue = new JiraIssue(unescape(fields[2]), unescape(fields[3]), unescape(fields[4]),
+            unescape(fields[5]), NULL_VALUE.equals(fields[6]) ? null : Instant.ofEpochMilli(Long.parseLong(fields[6])));
+        this.entries.put(unescape(fields[0]), new CachedIssue(issue, Instant.ofEpochMilli(Long.parseLong(fields[1]))));
+      }
+      log.info("Loaded [{}] JIRA issues from the cache at [{}]...", this.entries.size(), this.cacheFile);
+    } catch (IOException | RuntimeException e) {
+      log.warn("Ignoring unreadable JIRA issue cache at [{}]: [{}]", this.cacheFile, e.getMessage());
+      this.entries.clear();
+    }
+  }
+
+  private static String escape(String value) {
+    if (value == null) {
+      return NULL_VALUE;
+    }
+    StringBuilder escaped = new StringBuilder(value.length());
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      switch (c) {
+        case '\\' -> escaped.append("\\\\");
+        case '\t' -> escaped.append("\\t");
+        case '\n' -> escaped.append("\\n");
+        case '\r' -> escaped.append("\\r");
+        default -> escaped.append(c);
+      }
+    }
+    return escaped.toString();
+  }
+
+  private static String unescape(String value) {
+    if (NULL_VALUE.equals(value)) {
+      return null;
+    }
+    StringBuilder unescaped = new StringBuilder(value.length());
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c == '\\' && i + 1 < value.length()) {
+        char escapedChar = value.charAt(++i);
+        switch (escapedChar) {
+          case 't' -> unescaped.append('\t');
+          case 'n' -> unescaped.append('\n');
+          case 'r' -> unescaped.append('\r');
+          default -> unescaped.append(escapedChar);
+        }
+      } else {
+        unescaped.append(c);
+      }
+    }
+    return unescaped.toString();
+  }
+
+  private record CachedIssue(JiraIssue issue, Instant fetchedAt) {
+
+  }
+}
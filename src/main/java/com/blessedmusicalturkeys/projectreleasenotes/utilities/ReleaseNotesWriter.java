@@ -0,0 +1,107 @@
+package com.blessedmusicalturkeys.projectreleasenotes.utilities;
+
+import com.blessedmusicalturkeys.projectreleasenotes.constants.ReleaseNotesFormat;
+import com.blessedmusicalturkeys.projectreleasenotes.domain.JiraIssue;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes the release notes of a single release as Markdown, JSON or HTML. Every format is streamed issue by
+ * issue into the given output, so the document itself is never held in memory, however many issues the
+ * release has. The Markdown is the same section the changelog carries for the release.
+ *
+ * @author Timothy Stratton
+ */
+public class ReleaseNotesWriter {
+
+  private final ReleaseNotesFormat format;
+  private final Map<String, String> sectionsByIssueType;
+  private final ChangelogRenderer changelogRenderer;
+
+  /**
+   * @param sectionsByIssueType issue type name to section title, as configured for the changelog
+   */
+  public ReleaseNotesWriter(ReleaseNotesFormat format, Map<String, String> sectionsByIssueType) {
+    this.format = format;
+    this.sectionsByIssueType = sectionsByIssueType;
+    this.changelogRenderer = new ChangelogRenderer(sectionsByIssueType);
+  }
+
+  /**
+   * @param previousReleaseName the release the notes start from, or null for the first release
+   */
+  public void write(String releaseName, String previousReleaseName, List<JiraIssue> issues, Appendable output)
+      throws IOException {
+    switch (this.format) {
+      case JSON -> writeJson(releaseName, previousReleaseName, issues, output);
+      case HTML -> writeHtml(releaseName, issues, output);
+      default -> this.changelogRenderer.render(releaseName, issues, output);
+    }
+  }
+
+  private void writeJson(String releaseName, String previousReleaseName, List<JiraIssue> issues, Appendable output)
+      throws IOException {
+    output.append("{\n  \"release\": ");
+    TextEscaping.appendJsonString(releaseName, output);
+    output.append(",\n  \"previousRelease\": ");
+    TextEscaping.appendJsonString(previousReleaseName, output);
+    output.append(",\n  \"issueCount\": ").append(String.valueOf(issues.size()));
+    output.append(",\n  \"issues\": [");
+
+    String separator = "\n";
+    for (JiraIssue issue : issues) {
+      output.append(separator).append("    {\"key\": ");
+      TextEscaping.appendJsonString(issue.key(), output).append(", \"type\": ");
+      TextEscaping.appendJsonString(issue.type(), output).append(", \"section\": ");
+      TextEscaping.appendJsonString(sectionOf(issue), output).append(", \"summary\": ");
+      TextEscaping.appendJsonString(issue.summary(), output).append(", \"description\": ");
+      TextEscaping.appendJsonString(issue.description(), output).append(", \"updated\": ");
+      TextEscaping.appendJsonString(issue.updated() == null ? null : issue.updated().toString(), output).append('}');
+      separator = ",\n";
+    }
+    output.append(issues.isEmpty() ? "]\n}\n" : "\n  ]\n}\n");
+  }
+
+  private void writeHtml(String releaseName, List<JiraIssue> issues, Appendable output) throws IOException {
+    output.append("<!DOCTYPE html>\n<html>\n<head>\n<meta charset=\"utf-8\">\n<title>Release ");
+    TextEscaping.appendHtml(releaseName, output).append("</title>\n</head>\n<body>\n<h1>Release ");
+    TextEscaping.appendHtml(releaseName, output).append("</h1>\n");
+
+    for (Map.Entry<String, List<JiraIssue>> section : bucketBySection(issues).entrySet()) {
+      output.append("<h2>");
+      TextEscaping.appendHtml(section.getKey(), output).append("</h2>\n<ul>\n");
+      for (JiraIssue issue : section.getValue()) {
+        output.append("<li><strong>");
+        TextEscaping.appendHtml(issue.key(), output).append("</strong> ");
+        TextEscaping.appendHtml(issue.summary(), output);
+        if (issue.description() != null && !issue.description().isBlank()) {
+          output.append("\n<p>");
+          TextEscaping.appendHtml(issue.description(), output).append("</p>");
+        }
+        output.append("</li>\n");
+      }
+      output.append("</ul>\n");
+    }
+
+    output.append("</body>\n</html>\n");
+  }
+
+  //same layout as the Markdown: every configured section in order, "Other" only when it has issues
+  private Map<String, List<JiraIssue>> bucketBySection(List<JiraIssue> issues) {
+    Map<String, List<JiraIssue>> issuesBySection = new LinkedHashMap<>();
+    this.sectionsByIssueType.values().forEach(section -> issuesBySection.putIfAbsent(section, new ArrayList<>()));
+
+    for (JiraIssue issue : issues) {
+      issuesBySection.computeIfAbsent(sectionOf(issue), section -> new ArrayList<>()).add(issue);
+    }
+    return issuesBySection;
+  }
+
+  private String sectionOf(JiraIssue issue) {
+    String section = issue.type() == null ? null : this.sectionsByIssueType.get(issue.type());
+    return section == null ? ChangelogRenderer.OTHER_SECTION : section;
+  }
+}
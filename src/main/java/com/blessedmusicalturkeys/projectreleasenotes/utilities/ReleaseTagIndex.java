@@ -0,0 +1,106 @@
+package com.blessedmusicalturkeys.projectreleasenotes.utilities;
+
+import com.blessedmusicalturkeys.projectreleasenotes.domain.ReleaseVersion;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The tags of a repository that are semantic versions, sorted by version precedence. Tags that are not
+ * semantic versions are left out. Latest, previous and next lookups are binary searches over the sorted versions.
+ *
+ * The previous tag of a release skips the pre-releases in between, so the range of `1.3.0` starts at `1.2.0`
+ * rather than at `1.3.0-rc.2`, while the previous tag of a pre-release is simply the next lower version.
+ *
+ * @author Timothy Stratton
+ */
+@Slf4j
+public class ReleaseTagIndex {
+
+  private final List<ReleaseVersion> versions;
+  private final List<ReleaseVersion> releases;
+  private final Map<String, ReleaseVersion> versionsByTag;
+
+  private ReleaseTagIndex(List<ReleaseVersion> versions) {
+    Collections.sort(versions);
+    this.versions = Collections.unmodifiableList(versions);
+    this.releases = versions.stream().filter(version -> !version.isPreRelease()).toList();
+    this.versionsByTag = new HashMap<>();
+    versions.forEach(version -> this.versionsByTag.put(version.tagName(), version));
+  }
+
+  public static ReleaseTagIndex of(Collection<String> tagNames) {
+    List<ReleaseVersion> versions = new ArrayList<>(tagNames.size());
+    for (String tagName : tagNames) {
+      ReleaseVersion version = ReleaseVersion.parse(tagName);
+      if (version != null) {
+        versions.add(version);
+      } else {
+        log.debug("Skipping tag [{}] as it is not a semantic version", tagName);
+      }
+    }
+    return new ReleaseTagIndex(versions);
+  }
+
+  public boolean isEmpty() {
+    return this.versions.isEmpty();
+  }
+
+  public boolean contains(String tagName) {
+    return this.versionsByTag.containsKey(tagName);
+  }
+
+  /**
+   * @return the highest version, pre-releases included, or null if there is none
+   */
+  public String getLatest() {
+    return this.versions.isEmpty() ? null : this.versions.get(this.versions.size() - 1).tagName();
+  }
+
+  /**
+   * @return the highest version that is not a pre-release, or null if there is none
+   */
+  public String getLatestRelease() {
+    return this.releases.isEmpty() ? null : this.releases.get(this.releases.size() - 1).tagName();
+  }
+
+  /**
+   * @return the tag a range ending at the given tag starts from, or null if it is the first or not a version
+   */
+  public String getPrevious(String tagName) {
+    ReleaseVersion version = this.versionsByTag.get(tagName);
+    if (version == null) {
+      return null;
+    }
+    List<ReleaseVersion> candidates = version.isPreRelease() ? this.versions : this.releases;
+    int index = Collections.binarySearch(candidates, version);
+    return index > 0 ? candidates.get(index - 1).tagName() : null;
+  }
+
+  /**
+   * @return the next higher version, pre-releases included, or null if the given tag is the latest or not a version
+   */
+  public String getNext(String tagName) {
+    ReleaseVersion version = this.versionsByTag.get(tagName);
+    if (version == null) {
+      return null;
+    }
+    int index = Collections.binarySearch(this.versions, version);
+    return index < this.versions.size() - 1 ? this.versions.get(index + 1).tagName() : null;
+  }
+
+  /**
+   * @return every version, highest first
+   */
+  public List<String> getTagsNewestFirst() {
+    List<String> tags = new ArrayList<>(this.versions.size());
+    for (int i = this.versions.size() - 1; i >= 0; i--) {
+      tags.add(this.versions.get(i).tagName());
+    }
+    return tags;
+  }
+}
@@ -0,0 +1,45 @@
+package com.blessedmusicalturkeys.projectreleasenotes.utilities;
+
+import com.blessedmusicalturkeys.projectreleasenotes.constants.SemanticVersion;
+import com.blessedmusicalturkeys.projectreleasenotes.domain.ReleaseVersion;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Works out the name of the next release from the latest one, shared by every command that creates a release tag
+ *
+ * @author Timothy Stratton
+ */
+@Slf4j
+public class ReleaseVersioning {
+
+  private static final ReleaseVersion FIRST_RELEASE_BASE = ReleaseVersion.parse("0.0.0");
+
+  private ReleaseVersioning() {
+  }
+
+  /**
+   * @param latestReleaseName the release to increment, see {@link ReleaseTagIndex#getLatestRelease()}, or null if
+   *                          there is none yet
+   * @param versioningStrategy `MAJOR`, `MINOR`, `PATCH` or an explicit semantic version, which is used as is
+   */
+  public static String nextReleaseName(String latestReleaseName, String versioningStrategy) {
+    SemanticVersion incrementVersionBy;
+    try {
+      incrementVersionBy = SemanticVersion.valueOf(versioningStrategy);
+    } catch (IllegalArgumentException e) {
+      if (ReleaseVersion.parse(versioningStrategy) != null) {
+        return versioningStrategy;
+      } else {
+        log.info("Version flag must equal: `MAJOR`, `MINOR`, `PATCH`, or provide an explicit semantic version, e.g. 1.2.3");
+        throw new RuntimeException("Unsupported Versioning Strategy");
+      }
+    }
+
+    ReleaseVersion latestRelease = latestReleaseName == null ? null : ReleaseVersion.parse(latestReleaseName);
+    if (latestReleaseName != null && latestRelease == null) {
+      throw new RuntimeException("Unable to increment [" + latestReleaseName + "] as it is not a semantic version");
+    }
+
+    return (latestRelease == null ? FIRST_RELEASE_BASE : latestRelease).increment(incrementVersionBy);
+  }
+}
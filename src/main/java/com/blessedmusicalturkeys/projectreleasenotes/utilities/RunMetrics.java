@@ -0,0 +1,287 @@
+package com.blessedmusicalturkeys.projectreleasenotes.utilities;
+
+import com.blessedmusicalturkeys.projectreleasenotes.constants.ApplicationConstants;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Collects the wall time of each phase of a run and a handful of counters, and publishes them as a JSON
+ * run report and/or a Prometheus text file once the run is over. A disabled instance records nothing,
+ * so the instrumentation costs a field read per call when no report is configured.
+ *
+ * @author Timothy Stratton
+ */
+@Slf4j
+public class RunMetrics {
+
+  public static final String PHASE_GIT_OPEN = "git_open";
+  public static final String PHASE_JIRA_CONNECT = "jira_connect";
+  public static final String PHASE_TAG_SCAN = "tag_scan";
+  public static final String PHASE_GIT_WALK = "git_walk";
+  public static final String PHASE_JIRA_FETCH = "jira_fetch";
+  public static final String PHASE_RENDER = "render";
+  public static final String PHASE_CHANGELOG_WRITE = "changelog_write";
+  public static final String PHASE_GIT_COMMIT = "git_commit";
+  public static final String PHASE_GIT_PUSH = "git_push";
+
+  public static final String COMMITS_WALKED = "commits_walked";
+  public static final String TAGS_SCANNED = "tags_scanned";
+  public static final String JIRA_REQUESTS = "jira_requests";
+  public static final String JIRA_CACHE_HITS = "jira_cache_hits";
+  public static final String JIRA_CACHE_REVALIDATED = "jira_cache_revalidated";
+  public static final String JIRA_CACHE_MISSES = "jira_cache_misses";
+  public static final String JIRA_THROTTLED = "jira_throttled";
+  public static final String JIRA_RETRIES = "jira_retries";
+  public static final String JIRA_ISSUES_MISSING = "jira_issues_missing";
+  public static final String CHANGELOG_BYTES_WRITTEN = "changelog_bytes_written";
+
+  public static final RunMetrics DISABLED = new RunMetrics(null, null, null, null);
+
+  private static final String PROMETHEUS_PREFIX = "project_release_notes_";
+  private static final String REPOSITORY_PLACEHOLDER = "{repository}";
+  private static final Timer NOOP_TIMER = () -> { };
+
+  private final String command;
+  private final String repository;
+  private final Path reportFile;
+  private final Path prometheusFile;
+  private final boolean enabled;
+  private final Instant startedAt = Instant.now();
+  private final long startedNanos = System.nanoTime();
+  //phases keep the order they were first entered in, which is the order they show up in the report
+  private final Map<String, PhaseTiming> phases = new LinkedHashMap<>();
+  private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+
+  /**
+   * Stops the phase it was started for, meant for try-with-resources
+   */
+  public interface Timer extends AutoCloseable {
+    @Override
+    void close();
+  }
+
+  public RunMetrics(String command, String repository, Path reportFile, Path prometheusFile) {
+    this.command = command;
+    this.repository = repository;
+    this.reportFile = reportFile;
+    this.prometheusFile = prometheusFile;
+    this.enabled = reportFile != null || prometheusFile != null;
+  }
+
+  /**
+   * A `{repository}` within the configured file names is replaced with the repository name, so the runs of a
+   * batch each get their own files
+   */
+  public static RunMetrics fromEnvironment(String command, String repository) {
+    String reportFile = ApplicationConstants.CONST_METRICS_REPORT_FILE;
+    String prometheusFile = ApplicationConstants.CONST_METRICS_PROMETHEUS_FILE;
+    if (reportFile == null && prometheusFile == null) {
+      return DISABLED;
+    }
+    return new RunMetrics(command, repository,
+        reportFile == null ? null : Path.of(reportFile.replace(REPOSITORY_PLACEHOLDER, repository)),
+        prometheusFile == null ? null : Path.of(prometheusFile.replace(REPOSITORY_PLACEHOLDER, repository)));
+  }
+
+  public boolean isEnabled() {
+    return this.enabled;
+  }
+
+  /**
+   * Phases entered several times add up their durations, while the timers of a phase running at once, e.g. on
+   * several threads, count the time any of them was running only once
+   */
+  public Timer time(String phase) {
+    if (!this.enabled) {
+      return NOOP_TIMER;
+    }
+    PhaseTiming timing;
+    synchronized (this.phases) {
+      timing = this.phases.computeIfAbsent(phase, name -> new PhaseTiming());
+      timing.start(System.nanoTime());
+    }
+    return () -> {
+      synchronized (this.phases) {
+        timing.stop(System.nanoTime());
+      }
+    };
+  }
+
+  public void increment(String counter) {
+    increment(counter, 1);
+  }
+
+  public void increment(String counter, long delta) {
+    if (this.enabled) {
+      this.counters.computeIfAbsent(counter, name -> new LongAdder()).add(delta);
+    }
+  }
+
+  /**
+   * Writes the configured reports. A report that cannot be written is logged and does not fail the run.
+   */
+  public void publish(boolean successful) {
+    if (!this.enabled) {
+      return;
+    }
+
+    long now = System.nanoTime();
+    long durationNanos = now - this.startedNanos;
+    Map<String, PhaseTiming> phases = new LinkedHashMap<>();
+    synchronized (this.phases) {
+      this.phases.forEach((name, timing) -> phases.put(name, timing.snapshot(now)));
+    }
+    Map<String, Long> counters = new TreeMap<>();
+    this.counters.forEach((name, value) -> counters.put(name, value.sum()));
+
+    try {
+      if (this.reportFile != null) {
+        writeAtomically(this.reportFile, toJson(successful, durationNanos, phases, counters));
+        log.info("Run report written to [{}]...", this.reportFile);
+      }
+      if (this.prometheusFile != null) {
+        writeAtomically(this.prometheusFile, toPrometheus(successful, durationNanos, phases, counters));
+        log.info("Prometheus metrics written to [{}]...", this.prometheusFile);
+      }
+    } catch (IOException e) {
+      log.warn("Unable to write the run metrics: [{}]", e.getMessage(), e);
+    }
+  }
+
+  private String toJson(boolean successful, long durationNanos, Map<String, PhaseTiming> phases, Map<String, Long> counters) {
+    StringBuilder json = new StringBuilder(512);
+    json.append("{\n");
+    json.append("  \"command\": ").append(TextEscaping.jsonString(this.command)).append(",\n");
+    json.append("  \"repository\": ").append(TextEscaping.jsonString(this.repository)).append(",\n");
+    json.append("  \"startedAt\": ").append(TextEscaping.jsonString(this.startedAt.toString())).append(",\n");
+    json.append("  \"successful\": ").append(successful).append(",\n");
+    json.append("  \"durationMillis\": ").append(durationNanos / 1_000_000).append(",\n");
+
+    json.append("  \"phases\": {");
+    String separator = "\n";
+    for (Map.Entry<String, PhaseTiming> phase : phases.entrySet()) {
+      json.append(separator).append("    ").append(TextEscaping.jsonString(phase.getKey()))
+          .append(": {\"count\": ").append(phase.getValue().count)
+          .append(", \"totalMillis\": ").append(phase.getValue().nanos / 1_000_000).append('}');
+      separator = ",\n";
+    }
+    json.append(phases.isEmpty() ? "},\n" : "\n  },\n");
+
+    json.append("  \"counters\": {");
+    separator = "\n";
+    for (Map.Entry<String, Long> counter : counters.entrySet()) {
+      json.append(separator).append("    ").append(TextEscaping.jsonString(counter.getKey())).append(": ").append(counter.getValue());
+      separator = ",\n";
+    }
+    json.append(counters.isEmpty() ? "}" : "\n  }");
+
+    Double cacheHitRatio = cacheHitRatio(counters);
+    if (cacheHitRatio != null) {
+      json.append(",\n  \"jiraCacheHitRatio\": ").append(String.format(Locale.ROOT, "%.4f", cacheHitRatio));
+    }
+    json.append("\n}\n");
+    return json.toString();
+  }
+
+  private String toPrometheus(boolean successful, long durationNanos, Map<String, PhaseTiming> phases, Map<String, Long> counters) {
+    String labels = "command=\"" + TextEscaping.prometheusLabelValue(this.command) + "\",repository=\""
+        + TextEscaping.prometheusLabelValue(this.repository) + "\"";
+    StringBuilder text = new StringBuilder(512);
+
+    text.append("# HELP ").append(PROMETHEUS_PREFIX).append("run_success Whether the last run succeeded\n");
+    text.append("# TYPE ").append(PROMETHEUS_PREFIX).append("run_success gauge\n");
+    text.append(PROMETHEUS_PREFIX).append("run_success{").append(labels).append("} ").append(successful ? 1 : 0).append('\n');
+
+    text.append("# HELP ").append(PROMETHEUS_PREFIX).append("run_timestamp_seconds When the last run started\n");
+    text.append("# TYPE ").append(PROMETHEUS_PREFIX).append("run_timestamp_seconds gauge\n");
+    text.append(PROMETHEUS_PREFIX).append("run_timestamp_seconds{").append(labels).append("} ")
+        .append(this.startedAt.getEpochSecond()).append('\n');
+
+    text.append("# HELP ").append(PROMETHEUS_PREFIX).append("run_duration_seconds Wall time of the last run\n");
+    text.append("# TYPE ").append(PROMETHEUS_PREFIX).append("run_duration_seconds gauge\n");
+    text.append(PROMETHEUS_PREFIX).append("run_duration_seconds{").append(labels).append("} ")
+        .append(seconds(durationNanos)).append('\n');
+
+    text.append("# HELP ").append(PROMETHEUS_PREFIX).append("phase_duration_seconds Wall time spent per phase in the last run\n");
+    text.append("# TYPE ").append(PROMETHEUS_PREFIX).append("phase_duration_seconds gauge\n");
+    for (Map.Entry<String, PhaseTiming> phase : phases.entrySet()) {
+      text.append(PROMETHEUS_PREFIX).append("phase_duration_seconds{").append(labels).append(",phase=\"")
+          .append(TextEscaping.prometheusLabelValue(phase.getKey())).append("\"} ").append(seconds(phase.getValue().nanos)).append('\n');
+    }
+
+    for (Map.Entry<String, Long> counter : counters.entrySet()) {
+      text.append("# TYPE ").append(PROMETHEUS_PREFIX).append(counter.getKey()).append(" gauge\n");
+      text.append(PROMETHEUS_PREFIX).append(counter.getKey()).append('{').append(labels).append("} ")
+          .append(counter.getValue()).append('\n');
+    }
+
+    Double cacheHitRatio = cacheHitRatio(counters);
+    if (cacheHitRatio != null) {
+      text.append("# TYPE ").append(PROMETHEUS_PREFIX).append("jira_cache_hit_ratio gauge\n");
+      text.append(PROMETHEUS_PREFIX).append("jira_cache_hit_ratio{").append(labels).append("} ")
+          .append(String.format(Locale.ROOT, "%.4f", cacheHitRatio)).append('\n');
+    }
+    return text.toString();
+  }
+
+  /**
+   * @return the share of issues answered by the cache, fresh or revalidated, or null if the cache was not used
+   */
+  private static Double cacheHitRatio(Map<String, Long> counters) {
+    long hits = counters.getOrDefault(JIRA_CACHE_HITS, 0L) + counters.getOrDefault(JIRA_CACHE_REVALIDATED, 0L);
+    long lookups = hits + counters.getOrDefault(JIRA_CACHE_MISSES, 0L);
+    return lookups == 0 ? null : (double) hits / lookups;
+  }
+
+  private static String seconds(long nanos) {
+    return String.format(Locale.ROOT, "%.3f", nanos / 1_000_000_000d);
+  }
+
+  //scrapers such as the node exporter's textfile collector must never see a half written file
+  private static void writeAtomically(Path file, String content) throws IOException {
+    Path directory = file.toAbsolutePath().getParent();
+    Files.createDirectories(directory);
+    Path tempFile = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+    Files.writeString(tempFile, content, StandardCharsets.UTF_8);
+    Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  private static class PhaseTiming {
+    private long count;
+    private long nanos;
+    private int running;
+    private long runningSince;
+
+    private void start(long now) {
+      if (this.running++ == 0) {
+        this.runningSince = now;
+      }
+    }
+
+    private void stop(long now) {
+      this.count++;
+      if (--this.running == 0) {
+        this.nanos += now - this.runningSince;
+      }
+    }
+
+    //a phase still running, e.g. when a run failed, counts up to now
+    private PhaseTiming snapshot(long now) {
+      PhaseTiming snapshot = new PhaseTiming();
+      snapshot.count = this.count;
+      snapshot.nanos = this.nanos + (this.running > 0 ? now - this.runningSince : 0);
+      return snapshot;
+    }
+  }
+}
@@ -0,0 +1,181 @@
+package com.blessedmusicalturkeys.projectreleasenotes.utilities;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.jgit.lib.AnyObjectId;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevSort;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.revwalk.filter.RevFilter;
+
+/**
+ * Partitions the history below a set of tags in a single topological walk, assigning every commit to the lowest
+ * ranked tag that contains it. A topological walk emits a commit only once all of its children were emitted, so by
+ * then the lowest rank of the tags above it is known and is simply handed down to its parents. The walk costs one
+ * pass over the commits however many tags there are.
+ *
+ * Whether every tag contains the tags ranked below it falls out of the same walk: a commit is contained in all tags
+ * from some rank on if one of its children is, or if it carries the tag just below that rank.
+ *
+ * Commit bodies are dropped as soon as the merge commits were picked out, only their issue keys are kept.
+ *
+ * @author Timothy Stratton
+ */
+@Slf4j
+public class TagHistoryPartitioner {
+
+  private final Repository repository;
+  private final Function<String, List<String>> issueKeysOf;
+  private long commitsWalked;
+
+  /**
+   * @param issueKeysOf extracts the issue keys from the short message of a commit, empty if it is not a merge commit
+   */
+  public TagHistoryPartitioner(Repository repository, Function<String, List<String>> issueKeysOf) {
+    this.repository = repository;
+    this.issueKeysOf = issueKeysOf;
+  }
+
+  /**
+   * @param rankedTags the tags to partition the history of, lowest rank first
+   * @param tagCommits resolves a tag to the commit it points at
+   * @param excluded   commits whose history is left out, e.g. because it was partitioned before
+   */
+  public TagPartition partition(List<String> rankedTags, Function<String, ObjectId> tagCommits,
+      Collection<? extends ObjectId> excluded) throws IOException {
+    List<PartitionedCommit> partitionedCommits = new ArrayList<>();
+    if (rankedTags.isEmpty()) {
+      return new TagPartition(partitionedCommits, true);
+    }
+
+    try (PartitionWalk revWalk = new PartitionWalk(this.repository)) {
+      revWalk.sort(RevSort.TOPO);
+      revWalk.setRetainBody(true);
+      revWalk.setRevFilter(new IssueKeyRevFilter());
+
+      List<RankedCommit> tagCommitsByRank = new ArrayList<>(rankedTags.size());
+      for (int rank = 0; rank < rankedTags.size(); rank++) {
+        RankedCommit tagCommit = (RankedCommit) revWalk.parseCommit(tagCommits.apply(rankedTags.get(rank)));
+        if (tagCommit.tagRanks == null) {
+          tagCommit.tagRanks = new ArrayList<>(1);
+        }
+        tagCommit.tagRanks.add(rank);
+        tagCommitsByRank.add(tagCommit);
+        revWalk.markStart(tagCommit);
+      }
+      for (ObjectId excludedCommit : excluded) {
+        revWalk.markUninteresting(revWalk.parseCommit(excludedCommit));
+      }
+
+      int topRank = rankedTags.size() - 1;
+      for (RevCommit commit : revWalk) {
+        RankedCommit rankedCommit = (RankedCommit) commit;
+        //every child was emitted and handed its ranks down already, the tags of the commit itself come on top
+        for (int i = rankedCommit.tagRanks == null ? -1 : rankedCommit.tagRanks.size() - 1; i >= 0; i--) {
+          int tagRank = rankedCommit.tagRanks.get(i);
+          rankedCommit.rank = Math.min(rankedCommit.rank, tagRank);
+          if (tagRank == topRank || rankedCommit.containedFromRank <= tagRank + 1) {
+            rankedCommit.containedFromRank = Math.min(rankedCommit.containedFromRank, tagRank);
+          }
+        }
+        for (RevCommit parent : commit.getParents()) {
+          RankedCommit rankedParent = (RankedCommit) parent;
+          rankedParent.rank = Math.min(rankedParent.rank, rankedCommit.rank);
+          rankedParent.containedFromRank = Math.min(rankedParent.containedFromRank, rankedCommit.containedFromRank);
+        }
+
+        if (rankedCommit.issueKeys != null) {
+          partitionedCommits.add(new PartitionedCommit(commit.toObjectId(), rankedTags.get(rankedCommit.rank),
+              rankedCommit.issueKeys));
+          rankedCommit.issueKeys = null;
+        }
+        this.commitsWalked++;
+      }
+
+      boolean ordered = true;
+      for (int rank = 0; rank < tagCommitsByRank.size() && ordered; rank++) {
+        ordered = tagCommitsByRank.get(rank).containedFromRank <= rank;
+      }
+      return new TagPartition(partitionedCommits, ordered);
+    }
+  }
+
+  /**
+   * @return whether the commit is reachable from the tip
+   */
+  public boolean contains(ObjectId tip, ObjectId commit) throws IOException {
+    try (RevWalk revWalk = new RevWalk(this.repository)) {
+      return revWalk.isMergedInto(revWalk.parseCommit(commit), revWalk.parseCommit(tip));
+    }
+  }
+
+  public long getCommitsWalked() {
+    return this.commitsWalked;
+  }
+
+  /**
+   * @param commits the commits carrying issue keys with the lowest ranked tag containing them, children before parents
+   * @param ordered whether every tag contains the tags ranked below it
+   */
+  public record TagPartition(List<PartitionedCommit> commits, boolean ordered) {
+
+  }
+
+  public record PartitionedCommit(ObjectId commitId, String tag, List<String> issueKeys) {
+
+  }
+
+  private static class RankedCommit extends RevCommit {
+
+    //the ranks of the tags pointing at the commit, lowest first, null for untagged commits
+    private List<Integer> tagRanks;
+    //the lowest rank of the tags containing the commit, final once the commit is emitted
+    private int rank = Integer.MAX_VALUE;
+    //the lowest rank from which on every tag contains the commit, as far as the walk can tell
+    private int containedFromRank = Integer.MAX_VALUE;
+    private List<String> issueKeys;
+
+    private RankedCommit(AnyObjectId id) {
+      super(id);
+    }
+  }
+
+  private static class PartitionWalk extends RevWalk {
+
+    private PartitionWalk(Repository repository) {
+      super(repository);
+    }
+
+    @Override
+    protected RevCommit createCommit(AnyObjectId id) {
+      return new RankedCommit(id);
+    }
+  }
+
+  /**
+   * Picks out the issue keys while the body is loaded and drops it, before the topological sort holds on to the commit
+   */
+  private class IssueKeyRevFilter extends RevFilter {
+
+    @Override
+    public boolean include(RevWalk walker, RevCommit commit) {
+      List<String> issueKeys = issueKeysOf.apply(commit.getShortMessage());
+      if (!issueKeys.isEmpty()) {
+        ((RankedCommit) commit).issueKeys = issueKeys;
+      }
+      commit.disposeBody();
+      return true;
+    }
+
+    @Override
+    public RevFilter clone() {
+      return this;
+    }
+  }
+}
@@ -0,0 +1,123 @@
+package com.blessedmusicalturkeys.projectreleasenotes.utilities;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.jgit.lib.AnyObjectId;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevObject;
+import org.eclipse.jgit.revwalk.RevSort;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.revwalk.filter.RevFilter;
+
+/**
+ * Index of every tag reachable from HEAD, built once from the ref database.
+ * Annotated tags are peeled to the commit they point at and the tags are ordered
+ * the way a topological walk from HEAD encounters them (newest first).
+ *
+ * @author Timothy Stratton
+ */
+@Slf4j
+public class TagIndex {
+
+  private final List<String> tags;
+  private final Map<String, ObjectId> commitsByTag;
+  private final Map<ObjectId, List<String>> tagsByCommit;
+
+  private TagIndex(List<String> tags, Map<String, ObjectId> commitsByTag, Map<ObjectId, List<String>> tagsByCommit) {
+    this.tags = Collections.unmodifiableList(tags);
+    this.commitsByTag = commitsByTag;
+    this.tagsByCommit = tagsByCommit;
+  }
+
+  public static TagIndex build(Repository repository, RevWalk revWalk) throws IOException {
+    Map<ObjectId, List<String>> allTagsByCommit = new HashMap<>();
+
+    revWalk.reset();
+    revWalk.setRevFilter(RevFilter.ALL);
+    for (Ref ref : repository.getRefDatabase().getRefsByPrefix(Constants.R_TAGS)) {
+      RevObject tagTarget = revWalk.peel(revWalk.parseAny(ref.getObjectId()));
+      if (tagTarget instanceof RevCommit) {
+        allTagsByCommit.computeIfAbsent(tagTarget.toObjectId(), commit -> new ArrayList<>())
+            .add(Repository.shortenRefName(ref.getName()));
+      } else {
+        log.debug("Skipping tag [{}] as it does not point at a commit", ref.getName());
+      }
+    }
+
+    List<String> tags = new ArrayList<>();
+    Map<String, ObjectId> commitsByTag = new HashMap<>();
+    Map<ObjectId, List<String>> tagsByCommit = new HashMap<>();
+
+    ObjectId head = repository.resolve(Constants.HEAD);
+    if (head != null && !allTagsByCommit.isEmpty()) {
+      revWalk.reset();
+      revWalk.setRetainBody(false);
+      revWalk.sort(RevSort.TOPO);
+      revWalk.markStart(revWalk.parseCommit(head));
+
+      for (RevCommit commit : revWalk) {
+        List<String> tagsAtCommit = allTagsByCommit.get(commit);
+        if (tagsAtCommit != null) {
+          Collections.sort(tagsAtCommit);
+          for (String tag : tagsAtCommit) {
+            tags.add(tag);
+            commitsByTag.put(tag, commit.toObjectId());
+          }
+          tagsByCommit.put(commit.toObjectId(), Collections.unmodifiableList(tagsAtCommit));
+
+          if (tagsByCommit.size() == allTagsByCommit.size()) {
+            break;
+          }
+        }
+      }
+    }
+
+    revWalk.reset();
+    return new TagIndex(tags, commitsByTag, tagsByCommit);
+  }
+
+  /**
+   * @return every tag reachable from HEAD, newest first
+   */
+  public List<String> getTags() {
+    return this.tags;
+  }
+
+  public ObjectId getCommit(String tagName) {
+    return this.commitsByTag.get(tagName);
+  }
+
+  public List<String> getTagsAt(AnyObjectId commitId) {
+    return this.tagsByCommit.getOrDefault(commitId, Collections.emptyList());
+  }
+
+  /**
+   * @return the closest older tag that points at a different commit, or null if the given tag is the oldest
+   */
+  public String getPreviousTag(String tagName) {
+    ObjectId tagCommit = this.commitsByTag.get(tagName);
+    if (tagCommit == null) {
+      return null;
+    }
+
+    for (int i = this.tags.indexOf(tagName) + 1; i < this.tags.size(); i++) {
+      if (!tagCommit.equals(this.commitsByTag.get(this.tags.get(i)))) {
+        return this.tags.get(i);
+      }
+    }
+    return null;
+  }
+
+  public boolean isTagged(AnyObjectId commitId) {
+    return this.tagsByCommit.containsKey(commitId);
+  }
+}
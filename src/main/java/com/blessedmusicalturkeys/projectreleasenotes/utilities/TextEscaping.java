@@ -0,0 +1,97 @@
+package com.blessedmusicalturkeys.projectreleasenotes.utilities;
+
+import java.io.IOException;
+
+/**
+ * Escapes values for the JSON, HTML and Prometheus text documents the tool writes, straight into the output being
+ * written
+ *
+ * @author Timothy Stratton
+ */
+public class TextEscaping {
+
+  private TextEscaping() {
+  }
+
+  public static String jsonString(String value) {
+    if (value == null) {
+      return "null";
+    }
+    StringBuilder escaped = new StringBuilder(value.length() + 2);
+    try {
+      appendJsonString(value, escaped);
+    } catch (IOException e) {
+      throw new IllegalStateException(e); //a StringBuilder does not throw
+    }
+    return escaped.toString();
+  }
+
+  /**
+   * Appends the value as a quoted JSON string, or `null`
+   */
+  public static Appendable appendJsonString(String value, Appendable output) throws IOException {
+    if (value == null) {
+      return output.append("null");
+    }
+    output.append('"');
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      switch (c) {
+        case '"' -> output.append("\\\"");
+        case '\\' -> output.append("\\\\");
+        case '\n' -> output.append("\\n");
+        case '\r' -> output.append("\\r");
+        case '\t' -> output.append("\\t");
+        default -> {
+          if (c < 0x20) {
+            output.append(String.format("\\u%04x", (int) c));
+          } else {
+            output.append(c);
+          }
+        }
+      }
+    }
+    return output.append('"');
+  }
+
+  /**
+   * Appends the value as HTML text, a null value appends nothing
+   */
+  public static Appendable appendHtml(String value, Appendable output) throws IOException {
+    if (value == null) {
+      return output;
+    }
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      switch (c) {
+        case '<' -> output.append("&lt;");
+        case '>' -> output.append("&gt;");
+        case '&' -> output.append("&amp;");
+        case '"' -> output.append("&quot;");
+        case '\'' -> output.append("&#39;");
+        default -> output.append(c);
+      }
+    }
+    return output;
+  }
+
+  /**
+   * @return the value as the content of a quoted Prometheus label value, a null value as an empty one
+   */
+  public static String prometheusLabelValue(String value) {
+    if (value == null) {
+      return "";
+    }
+    StringBuilder escaped = new StringBuilder(value.length());
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      switch (c) {
+        case '\\' -> escaped.append("\\\\");
+        case '"' -> escaped.append("\\\"");
+        case '\n' -> escaped.append("\\n");
+        default -> escaped.append(c);
+      }
+    }
+    return escaped.toString();
+  }
+}
@@ -0,0 +1,87 @@
+package com.blessedmusicalturkeys.projectreleasenotes.domain;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.blessedmusicalturkeys.projectreleasenotes.constants.SemanticVersion;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Timothy Stratton
+ */
+class ReleaseVersionTest {
+
+  @Test
+  void parsesPrefixPreReleaseAndBuildMetadata() {
+    ReleaseVersion version = ReleaseVersion.parse("release-1.20.3-rc.1+build.7");
+
+    assertEquals("release-", version.prefix());
+    assertEquals(1, version.major());
+    assertEquals(20, version.minor());
+    assertEquals(3, version.patch());
+    assertEquals("rc.1", version.preRelease());
+    assertEquals("build.7", version.buildMetadata());
+    assertTrue(version.isPreRelease());
+    assertFalse(ReleaseVersion.parse("v1.2.3").isPreRelease());
+  }
+
+  @Test
+  void tagsThatAreNotSemanticVersionsAreNotParsed() {
+    assertNull(ReleaseVersion.parse("1.2"));
+    assertNull(ReleaseVersion.parse("1.2.3.4"));
+    assertNull(ReleaseVersion.parse("1.2.3-"));
+    assertNull(ReleaseVersion.parse("changelog-2023"));
+    assertNull(ReleaseVersion.parse("99999999999999999999.0.0"));
+  }
+
+  @Test
+  void ordersByPrecedenceWithPreReleasesBelowTheirRelease() {
+    //the precedence example of the semantic versioning specification
+    List<String> expected = List.of("1.0.0-alpha", "1.0.0-alpha.1", "1.0.0-alpha.beta", "1.0.0-beta", "1.0.0-beta.2",
+        "1.0.0-beta.11", "1.0.0-rc.1", "1.0.0", "1.0.1", "1.2.0", "1.10.0", "2.0.0-rc.1", "2.0.0");
+
+    assertEquals(expected, sorted(expected));
+  }
+
+  @Test
+  void comparesNumericPreReleaseIdentifiersAsNumbers() {
+    assertEquals(List.of("1.0.0-rc.2", "1.0.0-rc.010", "1.0.0-rc.11"), sorted(List.of("1.0.0-rc.11", "1.0.0-rc.010", "1.0.0-rc.2")));
+    //numeric identifiers rank below alphanumeric ones
+    assertEquals(List.of("1.0.0-1", "1.0.0-a"), sorted(List.of("1.0.0-a", "1.0.0-1")));
+  }
+
+  @Test
+  void buildMetadataAndPrefixOnlyBreakTies() {
+    ReleaseVersion version = ReleaseVersion.parse("1.0.0+build.1");
+    ReleaseVersion otherBuild = ReleaseVersion.parse("1.0.0+build.2");
+    ReleaseVersion prefixed = ReleaseVersion.parse("v1.0.0");
+
+    assertNotEquals(0, version.compareTo(otherBuild));
+    assertEquals(Integer.signum(version.compareTo(otherBuild)), -Integer.signum(otherBuild.compareTo(version)));
+    assertTrue(prefixed.compareTo(ReleaseVersion.parse("1.0.1")) < 0);
+    assertTrue(prefixed.compareTo(ReleaseVersion.parse("1.0.0-rc.1")) > 0);
+  }
+
+  @Test
+  void incrementKeepsThePrefixAndDropsThePreRelease() {
+    ReleaseVersion version = ReleaseVersion.parse("v1.2.3-rc.1+build.7");
+
+    assertEquals("v2.0.0", version.increment(SemanticVersion.MAJOR));
+    assertEquals("v1.3.0", version.increment(SemanticVersion.MINOR));
+    assertEquals("v1.2.4", version.increment(SemanticVersion.PATCH));
+  }
+
+  private static List<String> sorted(List<String> tagNames) {
+    List<ReleaseVersion> versions = new ArrayList<>();
+    tagNames.forEach(tagName -> versions.add(ReleaseVersion.parse(tagName)));
+    Collections.shuffle(versions);
+    Collections.sort(versions);
+    return versions.stream().map(ReleaseVersion::tagName).toList();
+  }
+}
@@ -0,0 +1,152 @@
+package com.blessedmusicalturkeys.projectreleasenotes.utilities;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Timothy Stratton
+ */
+class AdaptiveConcurrencyLimiterTest {
+
+  private final ExecutorService executor = Executors.newCachedThreadPool();
+
+  @AfterEach
+  void shutdown() {
+    this.executor.shutdownNow();
+  }
+
+  @Test
+  void returnsTheResultAndKeepsTheLimit() {
+    AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(4, 3, ThrottledException.class::isInstance);
+
+    assertEquals("result", limiter.call(() -> "result", RunMetrics.DISABLED));
+    assertEquals(4, limiter.getLimit());
+  }
+
+  @Test
+  void otherFailuresAreRethrownWithoutRetrying() {
+    AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(4, 3, ThrottledException.class::isInstance);
+    AtomicInteger attempts = new AtomicInteger();
+    IllegalStateException failure = new IllegalStateException("bad request");
+
+    assertSame(failure, assertThrows(IllegalStateException.class, () -> limiter.call(() -> {
+      attempts.incrementAndGet();
+      throw failure;
+    }, RunMetrics.DISABLED)));
+    assertEquals(1, attempts.get());
+    assertEquals(4, limiter.getLimit());
+  }
+
+  @Test
+  void throttledRequestsAreRetriedUnderAHalvedLimit() {
+    AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(4, 3, ThrottledException.class::isInstance);
+    AtomicInteger attempts = new AtomicInteger();
+
+    String result = limiter.call(() -> {
+      if (attempts.incrementAndGet() == 1) {
+        throw new ThrottledException();
+      }
+      return "result";
+    }, RunMetrics.DISABLED);
+
+    assertEquals("result", result);
+    assertEquals(2, attempts.get());
+    assertEquals(2, limiter.getLimit());
+  }
+
+  @Test
+  void theOriginalFailureIsRethrownOnceTheRetriesAreExhausted() {
+    AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(4, 0, ThrottledException.class::isInstance);
+    ThrottledException throttled = new ThrottledException();
+
+    assertSame(throttled, assertThrows(ThrottledException.class, () -> limiter.call(() -> {
+      throw throttled;
+    }, RunMetrics.DISABLED)));
+  }
+
+  @Test
+  void aBurstOfThrottlesHalvesTheLimitOnce() throws Exception {
+    AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(8, 0, ThrottledException.class::isInstance);
+    CountDownLatch allInFlight = new CountDownLatch(3);
+
+    List<Future<?>> requests = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      requests.add(this.executor.submit(() -> limiter.call(() -> {
+        allInFlight.countDown();
+        await(allInFlight);
+        throw new ThrottledException();
+      }, RunMetrics.DISABLED)));
+    }
+    for (Future<?> request : requests) {
+      assertThrows(Exception.class, () -> request.get(10, TimeUnit.SECONDS));
+    }
+
+    assertEquals(4, limiter.getLimit());
+  }
+
+  @Test
+  void successesGrowTheLimitBackByOneRequestPerWindow() {
+    AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(4, 0, ThrottledException.class::isInstance);
+    assertThrows(ThrottledException.class, () -> limiter.call(() -> {
+      throw new ThrottledException();
+    }, RunMetrics.DISABLED));
+    assertEquals(2, limiter.getLimit());
+
+    //every success adds 1/limit, so a window of two requests gets the limit just short of three
+    limiter.call(() -> "result", RunMetrics.DISABLED);
+    limiter.call(() -> "result", RunMetrics.DISABLED);
+    assertEquals(2, limiter.getLimit());
+
+    limiter.call(() -> "result", RunMetrics.DISABLED);
+    assertEquals(3, limiter.getLimit());
+  }
+
+  @Test
+  void neverHasMoreRequestsInFlightThanTheLimit() throws Exception {
+    AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 0, ThrottledException.class::isInstance);
+    AtomicInteger inFlight = new AtomicInteger();
+    AtomicInteger mostInFlight = new AtomicInteger();
+
+    List<Future<?>> requests = new ArrayList<>();
+    for (int i = 0; i < 8; i++) {
+      requests.add(this.executor.submit(() -> limiter.call(() -> {
+        mostInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        try {
+          Thread.sleep(20);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        return inFlight.decrementAndGet();
+      }, RunMetrics.DISABLED)));
+    }
+    for (Future<?> request : requests) {
+      request.get(10, TimeUnit.SECONDS);
+    }
+
+    assertTrue(mostInFlight.get() <= 2);
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await(10, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static class ThrottledException extends RuntimeException {
+  }
+}
@@ -0,0 +1,140 @@
+package com.blessedmusicalturkeys.projectreleasenotes.utilities;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * @author Timothy Stratton
+ */
+class ChangelogManifestTest {
+
+  private static final String CONFIGURATION = "configuration";
+  private static final String NEWER_SECTION = "# Release 1.1.0\n";
+  private static final String SEPARATOR = "\n***\n\n";
+  private static final String OLDER_SECTION = "# Release 1.0.0\n";
+
+  @TempDir
+  Path changelogDirectory;
+
+  private Path changelogFile;
+
+  @BeforeEach
+  void writeChangelog() throws IOException {
+    this.changelogFile = this.changelogDirectory.resolve(ChangelogGenerator.CHANGELOG_FILE_NAME);
+    Files.writeString(this.changelogFile, NEWER_SECTION + SEPARATOR + OLDER_SECTION, StandardCharsets.UTF_8);
+
+    long olderOffset = NEWER_SECTION.length() + SEPARATOR.length();
+    new ChangelogManifest(List.of(
+        section("1.1.0", "c2", "c1", NEWER_SECTION, 0),
+        section("1.0.0", "c1", null, OLDER_SECTION, olderOffset)))
+        .save(this.changelogDirectory);
+  }
+
+  @Test
+  void loadKeepsSectionsWhoseBytesStillMatch() {
+    ChangelogManifest manifest = ChangelogManifest.load(this.changelogDirectory, this.changelogFile);
+
+    assertEquals(2, manifest.getSections().size());
+    assertNotNull(manifest.getReusableSection("1.1.0", "c2", "c1", CONFIGURATION));
+    assertNotNull(manifest.getReusableSection("1.0.0", "c1", null, CONFIGURATION));
+  }
+
+  @Test
+  void loadDropsSectionsThatWereEditedByHand() throws IOException {
+    Files.writeString(this.changelogFile, "# Release 1.1.1\n" + SEPARATOR + OLDER_SECTION, StandardCharsets.UTF_8);
+
+    ChangelogManifest manifest = ChangelogManifest.load(this.changelogDirectory, this.changelogFile);
+
+    assertNull(manifest.getReusableSection("1.1.0", "c2", "c1", CONFIGURATION));
+    assertNotNull(manifest.getReusableSection("1.0.0", "c1", null, CONFIGURATION));
+  }
+
+  @Test
+  void loadDropsSectionsBeyondTheEndOfTheChangelog() throws IOException {
+    Files.writeString(this.changelogFile, NEWER_SECTION, StandardCharsets.UTF_8);
+
+    ChangelogManifest manifest = ChangelogManifest.load(this.changelogDirectory, this.changelogFile);
+
+    assertEquals(1, manifest.getSections().size());
+    assertNull(manifest.getReusableSection("1.0.0", "c1", null, CONFIGURATION));
+  }
+
+  @Test
+  void sectionIsNotReusedOnceItsTagMoved() {
+    ChangelogManifest manifest = ChangelogManifest.load(this.changelogDirectory, this.changelogFile);
+
+    assertNull(manifest.getReusableSection("1.1.0", "c3", "c1", CONFIGURATION));
+  }
+
+  @Test
+  void sectionIsNotReusedOnceItsPreviousTagChanged() {
+    ChangelogManifest manifest = ChangelogManifest.load(this.changelogDirectory, this.changelogFile);
+
+    //e.g. a backport tagged between 1.0.0 and 1.1.0
+    assertNull(manifest.getReusableSection("1.1.0", "c2", "c1-backport", CONFIGURATION));
+    //the first tag gained a previous tag
+    assertNull(manifest.getReusableSection("1.0.0", "c1", "c0", CONFIGURATION));
+  }
+
+  @Test
+  void sectionIsNotReusedOnceTheRendererConfigurationChanged() {
+    ChangelogManifest manifest = ChangelogManifest.load(this.changelogDirectory, this.changelogFile);
+
+    assertNull(manifest.getReusableSection("1.1.0", "c2", "c1", "other configuration"));
+  }
+
+  @Test
+  void manifestOfAnOlderFormatIsIgnored() throws IOException {
+    Files.writeString(this.changelogDirectory.resolve(ChangelogManifest.MANIFEST_FILE_NAME),
+        "1.1.0\tc2\t" + ChangelogManifest.sha256(NEWER_SECTION.getBytes(StandardCharsets.UTF_8)) + "\t0\t"
+            + NEWER_SECTION.length() + "\n", StandardCharsets.UTF_8);
+
+    assertTrue(ChangelogManifest.load(this.changelogDirectory, this.changelogFile).getSections().isEmpty());
+  }
+
+  @Test
+  void prependedSectionIsNeverReusedAndShiftsTheOthers() {
+    ChangelogManifest manifest = ChangelogManifest.load(this.changelogDirectory, this.changelogFile)
+        .withPrependedSection("1.2.0", "sha", 100, 10);
+
+    assertNull(manifest.getReusableSection("1.2.0", "-", null, "-"));
+    assertEquals(110, manifest.getReusableSection("1.1.0", "c2", "c1", CONFIGURATION).offset());
+  }
+
+  @Test
+  void configurationHashFollowsTheSections() {
+    Map<String, String> sections = new LinkedHashMap<>();
+    sections.put("Story", "Features");
+    sections.put("Bug", "Fixes");
+    Map<String, String> reordered = new LinkedHashMap<>();
+    reordered.put("Bug", "Fixes");
+    reordered.put("Story", "Features");
+
+    String hash = new ChangelogRenderer(sections).getConfigurationHash();
+
+    assertEquals(hash, new ChangelogRenderer(new LinkedHashMap<>(sections)).getConfigurationHash());
+    assertNotEquals(hash, new ChangelogRenderer(reordered).getConfigurationHash());
+    assertNotEquals(hash, new ChangelogRenderer(Map.of("Story", "New")).getConfigurationHash());
+  }
+
+  private static ChangelogManifest.Section section(String tag, String commitId, String previousCommitId, String content,
+      long offset) {
+    byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+    return ChangelogManifest.newSection(tag, commitId, previousCommitId, CONFIGURATION, ChangelogManifest.sha256(bytes),
+        offset, bytes.length);
+  }
+}
@@ -0,0 +1,163 @@
+package com.blessedmusicalturkeys.projectreleasenotes.utilities;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.eclipse.jgit.lib.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * @author Timothy Stratton
+ */
+class CommitIssueIndexTest {
+
+  private static final String SIGNATURE = "Merged in|PROJ|feature/";
+
+  @TempDir
+  Path indexDirectory;
+
+  private final Map<String, ObjectId> tagCommits = new HashMap<>();
+  private InMemoryHistory history;
+  private Path indexFile;
+  private ObjectId firstMerge;
+  private ObjectId secondMerge;
+  private ObjectId thirdMerge;
+
+  @BeforeEach
+  void buildHistory() throws IOException {
+    this.indexFile = this.indexDirectory.resolve("repository.idx");
+    this.history = new InMemoryHistory();
+    this.firstMerge = this.history.commitOnTrunk("Merged in feature/PROJ-1-first");
+    tag("1.0.0", this.firstMerge);
+    this.secondMerge = this.history.commitOnTrunk("Merged in feature/PROJ-2-second");
+    this.history.commitOnTrunk("Direct commit without an issue");
+    this.thirdMerge = this.history.commitOnTrunk("Merged in feature/PROJ-3-third");
+    tag("1.2.0", this.thirdMerge);
+  }
+
+  @AfterEach
+  void close() {
+    this.history.close();
+  }
+
+  @Test
+  void assignsEveryCommitToTheEarliestTagContainingIt() throws IOException {
+    CommitIssueIndex index = new CommitIssueIndex(null, SIGNATURE);
+
+    assertEquals(4, index.update(partitioner(), List.of("1.0.0", "1.2.0"), this.tagCommits::get));
+
+    assertTrue(index.isOrdered());
+    assertEquals(List.of("PROJ-1"), index.getIssueKeys("1.0.0"));
+    assertEquals(List.of("PROJ-3", "PROJ-2"), index.getIssueKeys("1.2.0"));
+    assertEquals("1.2.0", index.getTag(this.secondMerge));
+    assertNull(index.getTag(this.history.getRepository().resolve("main~1")));
+  }
+
+  @Test
+  void updateOnlyWalksTheCommitsOfNewTags() throws IOException {
+    CommitIssueIndex index = new CommitIssueIndex(null, SIGNATURE);
+    index.update(partitioner(), List.of("1.0.0", "1.2.0"), this.tagCommits::get);
+
+    tag("1.3.0", this.history.commitOnTrunk("Merged in feature/PROJ-4-fourth"));
+
+    assertEquals(1, index.update(partitioner(), List.of("1.0.0", "1.2.0", "1.3.0"), this.tagCommits::get));
+    assertEquals(List.of("PROJ-4"), index.getIssueKeys("1.3.0"));
+    assertEquals(List.of("PROJ-3", "PROJ-2"), index.getIssueKeys("1.2.0"));
+    assertEquals(0, index.update(partitioner(), List.of("1.0.0", "1.2.0", "1.3.0"), this.tagCommits::get));
+  }
+
+  @Test
+  void rebuildsWhenANewTagRanksBelowTheIndexedOnes() throws IOException {
+    CommitIssueIndex index = new CommitIssueIndex(null, SIGNATURE);
+    index.update(partitioner(), List.of("1.0.0", "1.2.0"), this.tagCommits::get);
+
+    //e.g. `1.1.0` tagged after `1.2.0` was indexed
+    tag("1.1.0", this.secondMerge);
+
+    assertEquals(4, index.update(partitioner(), List.of("1.0.0", "1.1.0", "1.2.0"), this.tagCommits::get));
+    assertEquals(List.of("PROJ-2"), index.getIssueKeys("1.1.0"));
+    assertEquals(List.of("PROJ-3"), index.getIssueKeys("1.2.0"));
+    assertEquals("1.1.0", index.getTag(this.secondMerge));
+  }
+
+  @Test
+  void rebuildsWhenAnIndexedTagMoved() throws IOException {
+    CommitIssueIndex index = new CommitIssueIndex(null, SIGNATURE);
+    index.update(partitioner(), List.of("1.0.0", "1.2.0"), this.tagCommits::get);
+
+    tag("1.0.0", this.secondMerge);
+
+    index.update(partitioner(), List.of("1.0.0", "1.2.0"), this.tagCommits::get);
+    assertEquals("1.0.0", index.getTag(this.secondMerge));
+    assertEquals(List.of("PROJ-3"), index.getIssueKeys("1.2.0"));
+  }
+
+  @Test
+  void detectsTagsThatDoNotContainTheTagRankedBelowThem() throws IOException {
+    //a backport of `1.0.0` ranking above `1.2.0` without containing it
+    tag("1.0.1", this.history.commit("Merged in feature/PROJ-9-backport", this.firstMerge));
+    CommitIssueIndex index = new CommitIssueIndex(null, SIGNATURE);
+
+    index.update(partitioner(), List.of("1.0.0", "1.2.0", "1.0.1"), this.tagCommits::get);
+
+    assertFalse(index.isOrdered());
+  }
+
+  @Test
+  void detectsUnorderedTagsAddedToAnIndexedHistory() throws IOException {
+    CommitIssueIndex index = new CommitIssueIndex(null, SIGNATURE);
+    index.update(partitioner(), List.of("1.0.0", "1.2.0"), this.tagCommits::get);
+
+    tag("1.0.1", this.history.commit("Merged in feature/PROJ-9-backport", this.firstMerge));
+    index.update(partitioner(), List.of("1.0.0", "1.2.0", "1.0.1"), this.tagCommits::get);
+
+    assertFalse(index.isOrdered());
+    assertEquals(List.of("PROJ-9"), index.getIssueKeys("1.0.1"));
+  }
+
+  @Test
+  void persistedIndexIsReusedByTheNextRun() throws IOException {
+    CommitIssueIndex index = new CommitIssueIndex(this.indexFile, SIGNATURE);
+    index.update(partitioner(), List.of("1.0.0", "1.2.0"), this.tagCommits::get);
+    index.save();
+
+    CommitIssueIndex reloaded = new CommitIssueIndex(this.indexFile, SIGNATURE);
+
+    assertTrue(reloaded.covers("1.2.0"));
+    assertEquals(0, reloaded.update(partitioner(), List.of("1.0.0", "1.2.0"), this.tagCommits::get));
+    assertEquals(List.of("PROJ-3", "PROJ-2"), reloaded.getIssueKeys("1.2.0"));
+    assertEquals("1.0.0", reloaded.getTag(this.firstMerge));
+  }
+
+  @Test
+  void persistedIndexOfAnotherExtractorIsDiscarded() throws IOException {
+    CommitIssueIndex index = new CommitIssueIndex(this.indexFile, SIGNATURE);
+    index.update(partitioner(), List.of("1.0.0", "1.2.0"), this.tagCommits::get);
+    index.save();
+
+    CommitIssueIndex reloaded = new CommitIssueIndex(this.indexFile, SIGNATURE + ",bugfix/");
+
+    assertFalse(reloaded.covers("1.0.0"));
+    assertTrue(reloaded.getIssueKeys("1.2.0").isEmpty());
+  }
+
+  private TagHistoryPartitioner partitioner() {
+    IssueKeyExtractor extractor = new IssueKeyExtractor(List.of("PROJ"), IssueKeyExtractor.DEFAULT_BRANCH_PREFIXES);
+    return new TagHistoryPartitioner(this.history.getRepository(), extractor::extract);
+  }
+
+  private void tag(String tagName, ObjectId commitId) throws IOException {
+    this.history.tag(tagName, commitId);
+    this.tagCommits.put(tagName, commitId);
+  }
+}
@@ -0,0 +1,90 @@
+package com.blessedmusicalturkeys.projectreleasenotes.utilities;
+
+import java.io.IOException;
+import org.eclipse.jgit.internal.storage.dfs.DfsRepositoryDescription;
+import org.eclipse.jgit.internal.storage.dfs.InMemoryRepository;
+import org.eclipse.jgit.lib.CommitBuilder;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectInserter;
+import org.eclipse.jgit.lib.PersonIdent;
+import org.eclipse.jgit.lib.RefUpdate;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.lib.TreeFormatter;
+
+/**
+ * Builds small histories of empty commits in an in-memory repository, with `main` as HEAD
+ *
+ * @author Timothy Stratton
+ */
+class InMemoryHistory implements AutoCloseable {
+
+  static final String TRUNK = "main";
+
+  private final InMemoryRepository repository = new InMemoryRepository(new DfsRepositoryDescription("history"));
+  private final PersonIdent author = new PersonIdent("author", "author@example.com");
+  private final ObjectId emptyTree;
+
+  InMemoryHistory() throws IOException {
+    this.repository.updateRef(Constants.HEAD).link(Constants.R_HEADS + TRUNK);
+    try (ObjectInserter inserter = this.repository.newObjectInserter()) {
+      this.emptyTree = inserter.insert(new TreeFormatter());
+      inserter.flush();
+    }
+  }
+
+  Repository getRepository() {
+    return this.repository;
+  }
+
+  /**
+   * Commits on top of the given parents, without moving any branch
+   */
+  ObjectId commit(String message, ObjectId... parents) throws IOException {
+    CommitBuilder commit = new CommitBuilder();
+    commit.setTreeId(this.emptyTree);
+    commit.setParentIds(parents);
+    commit.setAuthor(this.author);
+    commit.setCommitter(this.author);
+    commit.setMessage(message);
+    try (ObjectInserter inserter = this.repository.newObjectInserter()) {
+      ObjectId commitId = inserter.insert(commit);
+      inserter.flush();
+      return commitId;
+    }
+  }
+
+  /**
+   * Commits on top of the trunk and moves it, the first commit starts the trunk
+   */
+  ObjectId commitOnTrunk(String message) throws IOException {
+    ObjectId trunk = this.repository.resolve(Constants.R_HEADS + TRUNK);
+    ObjectId commitId = trunk == null ? commit(message) : commit(message, trunk);
+    moveTrunk(commitId);
+    return commitId;
+  }
+
+  void moveTrunk(ObjectId commitId) throws IOException {
+    forceRef(Constants.R_HEADS + TRUNK, commitId);
+  }
+
+  void tag(String tagName, ObjectId commitId) throws IOException {
+    forceRef(Constants.R_TAGS + tagName, commitId);
+  }
+
+  private void forceRef(String refName, ObjectId objectId) throws IOException {
+    RefUpdate refUpdate = this.repository.updateRef(refName);
+    refUpdate.setNewObjectId(objectId);
+    refUpdate.setForceUpdate(true);
+    RefUpdate.Result result = refUpdate.update();
+    if (result != RefUpdate.Result.NEW && result != RefUpdate.Result.FORCED && result != RefUpdate.Result.NO_CHANGE
+        && result != RefUpdate.Result.FAST_FORWARD) {
+      throw new IOException("Unable to update [" + refName + "]: " + result);
+    }
+  }
+
+  @Override
+  public void close() {
+    this.repository.close();
+  }
+}
@@ -0,0 +1,66 @@
+package com.blessedmusicalturkeys.projectreleasenotes.utilities;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Timothy Stratton
+ */
+class IssueKeyExtractorTest {
+
+  private final IssueKeyExtractor extractor = new IssueKeyExtractor(List.of("PROJ", "PRO"),
+      IssueKeyExtractor.DEFAULT_BRANCH_PREFIXES);
+
+  @Test
+  void extractsTheIssueKeyOfAMergedBranch() {
+    assertEquals(List.of("PROJ-123"), this.extractor.extract("Merged in feature/PROJ-123-some-work (pull request #7)"));
+    assertEquals(List.of("PROJ-123"), this.extractor.extract("Merged in PROJ-123-without-prefix"));
+  }
+
+  @Test
+  void extractsEveryIssueKeyOfTheBranchOnce() {
+    assertEquals(List.of("PROJ-1", "PRO-2"), this.extractor.extract("Merged in bugfix/PROJ-1-and-PRO-2-and-PROJ-1"));
+  }
+
+  @Test
+  void longerProjectKeysAreNotShadowedByShorterOnes() {
+    assertEquals(List.of("PROJ-5"), this.extractor.extract("Merged in hotfix/PROJ-5"));
+  }
+
+  @Test
+  void ignoresMessagesThatAreNotMergesOfAnIssueBranch() {
+    assertEquals(List.of(), this.extractor.extract("PROJ-123 direct commit"));
+    assertEquals(List.of(), this.extractor.extract("Merged in feature/some-work"));
+    assertEquals(List.of(), this.extractor.extract("Merged in feature/OTHER-123"));
+  }
+
+  @Test
+  void ignoresIssueKeysOutsideOfTheBranchName() {
+    assertEquals(List.of("PROJ-1"), this.extractor.extract("Merged in feature/PROJ-1 (pull request PROJ-2)"));
+  }
+
+  @Test
+  void ignoresProjectKeysThatAreOnlyTheEndOfAWord() {
+    assertEquals(List.of("PROJ-1"), this.extractor.extract("Merged in feature/PROJ-1-XPROJ-2"));
+  }
+
+  @Test
+  void worksWithoutBranchPrefixes() {
+    IssueKeyExtractor withoutPrefixes = new IssueKeyExtractor(List.of("PROJ"), List.of());
+
+    assertEquals(List.of("PROJ-9"), withoutPrefixes.extract("Merged in PROJ-9-work"));
+    assertEquals(List.of(), withoutPrefixes.extract("Merged in feature/PROJ-9-work"));
+  }
+
+  @Test
+  void requiresAProjectKey() {
+    assertThrows(IllegalArgumentException.class,
+        () -> new IssueKeyExtractor(List.of(), IssueKeyExtractor.DEFAULT_BRANCH_PREFIXES));
+    assertThrows(IllegalArgumentException.class,
+        () -> new IssueKeyExtractor(Arrays.asList(" ", null), IssueKeyExtractor.DEFAULT_BRANCH_PREFIXES));
+  }
+}
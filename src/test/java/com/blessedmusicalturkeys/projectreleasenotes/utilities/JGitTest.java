@@ -0,0 +1,219 @@
+package com.blessedmusicalturkeys.projectreleasenotes.utilities;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.blessedmusicalturkeys.projectreleasenotes.constants.ApplicationConstants;
+import com.blessedmusicalturkeys.projectreleasenotes.domain.RunConfiguration;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.dircache.DirCache;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * @author Timothy Stratton
+ */
+class JGitTest {
+
+  @TempDir
+  Path workingDir;
+
+  private InMemoryHistory history;
+  private JGit gitClient;
+
+  @BeforeEach
+  void buildHistory() throws IOException {
+    this.history = new InMemoryHistory();
+    this.history.commitOnTrunk("Initial commit");
+    this.history.tag("1.2.0", this.history.commitOnTrunk("Merged in feature/PROJ-1-first"));
+    this.history.tag("1.3.0-rc.1", this.history.commitOnTrunk("Merged in feature/PROJ-2-second"));
+    this.history.commitOnTrunk("Merged in bugfix/PROJ-3-third");
+    this.history.commitOnTrunk("Direct commit without an issue");
+
+    this.gitClient = new JGit(Git.wrap(this.history.getRepository()), this.workingDir.toFile(),
+        new IssueKeyExtractor(List.of("PROJ"), IssueKeyExtractor.DEFAULT_BRANCH_PREFIXES));
+  }
+
+  @AfterEach
+  void close() {
+    this.gitClient.close();
+  }
+
+  @Test
+  void issuesSinceLastTagStartAtTheNewestTagEvenIfItIsAPreRelease() throws IOException {
+    assertEquals(List.of("PROJ-3"), this.gitClient.getAllIssuesSinceLastTag());
+  }
+
+  @Test
+  void issuesSinceLastTagStartAtTheNewestTagThatIsNotAVersion() throws IOException {
+    this.history.tag("nightly", this.history.commitOnTrunk("Merged in feature/PROJ-4-fourth"));
+    this.history.commitOnTrunk("Merged in feature/PROJ-5-fifth");
+
+    assertEquals(List.of("PROJ-5"), this.gitClient.getAllIssuesSinceLastTag());
+  }
+
+  @Test
+  void rangeOfAReleaseCutAfterItsReleaseCandidatesStartsAtThePreviousRelease() throws IOException {
+    this.history.tag("1.3.0", this.history.commitOnTrunk("Merged in feature/PROJ-4-fourth"));
+
+    assertEquals("1.2.0", this.gitClient.getPreviousTag("1.3.0"));
+    assertEquals(List.of("PROJ-4", "PROJ-3", "PROJ-2"), this.gitClient.getIssuesWithinTag("1.3.0"));
+    assertEquals(List.of("PROJ-2"), this.gitClient.getIssuesWithinTag("1.3.0-rc.1"));
+  }
+
+  @Test
+  void everythingIsSinceTheLastTagWithoutTags() throws IOException {
+    try (InMemoryHistory untagged = new InMemoryHistory()) {
+      untagged.commitOnTrunk("Merged in feature/PROJ-1-first");
+      untagged.commitOnTrunk("Merged in feature/PROJ-2-second");
+
+      JGit untaggedClient = new JGit(Git.wrap(untagged.getRepository()), this.workingDir.resolve("untagged").toFile(),
+          new IssueKeyExtractor(List.of("PROJ"), IssueKeyExtractor.DEFAULT_BRANCH_PREFIXES));
+      assertEquals(List.of("PROJ-2", "PROJ-1"), untaggedClient.getAllIssuesSinceLastTag());
+      assertNull(untaggedClient.getPreviousTag("1.0.0"));
+      untaggedClient.close();
+    }
+  }
+
+  @Test
+  void issuesOfSeveralTagsAreHandedOverLowestRankFirstAcrossWalks() throws IOException {
+    //more tags than a single walk of CHANGELOG_PARALLELISM tags covers
+    for (int minor = 4; minor <= 9; minor++) {
+      this.history.tag("1." + minor + ".0", this.history.commitOnTrunk("Merged in feature/PROJ-" + (minor * 10) + "-work"));
+    }
+    List<String> tags = List.of("1.9.0", "1.7.0", "1.4.0", "1.2.0");
+
+    List<String> handedOver = new ArrayList<>();
+    List<List<String>> issues = new ArrayList<>();
+    this.gitClient.getIssuesWithinTags(tags, (tag, issueKeys) -> {
+      handedOver.add(tag);
+      issues.add(issueKeys);
+    });
+
+    assertEquals(List.of("1.2.0", "1.4.0", "1.7.0", "1.9.0"), handedOver);
+    assertEquals(List.of(List.of("PROJ-1"), List.of("PROJ-40", "PROJ-3", "PROJ-2"), List.of("PROJ-70"),
+        List.of("PROJ-90")), issues);
+    assertEquals(tags, List.copyOf(this.gitClient.getIssuesWithinTags(tags).keySet()));
+  }
+
+  @Test
+  void inMemoryCommitPutsTheChangelogOnTheTrunkAndTagsIt() throws IOException, GitAPIException {
+    ObjectId previousTrunk = this.history.getRepository().resolve(Constants.R_HEADS + InMemoryHistory.TRUNK);
+    byte[] changelog = writeChangelog(this.workingDir);
+
+    JGit trunkClient = new JGit(Git.wrap(this.history.getRepository()), this.workingDir.toFile(),
+        configurationFor(InMemoryHistory.TRUNK), null);
+    trunkClient.commitAndTagInMemory("1.3.0", true);
+
+    Repository repository = this.history.getRepository();
+    try (RevWalk revWalk = new RevWalk(repository)) {
+      RevCommit trunk = revWalk.parseCommit(repository.resolve(Constants.R_HEADS + InMemoryHistory.TRUNK));
+      RevCommit tagged = revWalk.parseCommit(repository.resolve(Constants.R_TAGS + "1.3.0"));
+
+      assertEquals(List.of(previousTrunk), List.of(tagged.getParents()));
+      if (ApplicationConstants.CONST_GIT_CHANGELOG_MERGE_COMMIT) {
+        assertEquals(List.of(previousTrunk, tagged), List.of(trunk.getParents()));
+      } else {
+        assertEquals(tagged, trunk);
+      }
+      assertEquals(tagged.getTree(), trunk.getTree());
+
+      try (TreeWalk treeWalk = TreeWalk.forPath(repository, "changelog/changelog.md", tagged.getTree())) {
+        assertNotNull(treeWalk);
+        assertArrayEquals(changelog, repository.open(treeWalk.getObjectId(0)).getBytes());
+      }
+    }
+    trunkClient.close();
+  }
+
+  @Test
+  void inMemoryCommitLeavesTheIndexAndWorkingTreeAlone() throws IOException, GitAPIException {
+    Path repositoryDir = this.workingDir.resolve("on-disk");
+    try (Git git = Git.init().setDirectory(repositoryDir.toFile()).setInitialBranch(InMemoryHistory.TRUNK).call()) {
+      Files.writeString(repositoryDir.resolve("README.md"), "readme");
+      git.add().addFilepattern("README.md").call();
+      git.commit().setMessage("Initial commit").setAuthor("author", "author@example.com").call();
+
+      //a staged and an unstaged change, neither of which may end up in the changelog commit
+      Files.writeString(repositoryDir.resolve("staged.txt"), "staged");
+      git.add().addFilepattern("staged.txt").call();
+      Files.writeString(repositoryDir.resolve("README.md"), "edited readme");
+      byte[] changelog = writeChangelog(repositoryDir);
+      List<String> indexBefore = indexEntries(git.getRepository());
+
+      JGit trunkClient = new JGit(git, repositoryDir.toFile(), configurationFor(InMemoryHistory.TRUNK), null);
+      trunkClient.commitAndTagInMemory("1.3.0", true);
+
+      assertEquals(indexBefore, indexEntries(git.getRepository()));
+      assertEquals("edited readme", Files.readString(repositoryDir.resolve("README.md")));
+      assertEquals("staged", Files.readString(repositoryDir.resolve("staged.txt")));
+      assertArrayEquals(changelog, Files.readAllBytes(repositoryDir.resolve("changelog/changelog.md")));
+      try (TreeWalk treeWalk = TreeWalk.forPath(git.getRepository(), "staged.txt",
+          git.getRepository().parseCommit(git.getRepository().resolve(Constants.R_TAGS + "1.3.0")).getTree())) {
+        assertNull(treeWalk);
+      }
+    }
+  }
+
+  @Test
+  void inMemoryCommitCreatesNoTagWhenTheTrunkCannotBeMoved() throws IOException, GitAPIException {
+    Path repositoryDir = this.workingDir.resolve("locked");
+    try (Git git = Git.init().setDirectory(repositoryDir.toFile()).setInitialBranch(InMemoryHistory.TRUNK).call()) {
+      git.commit().setMessage("Initial commit").setAuthor("author", "author@example.com").call();
+      ObjectId previousTrunk = git.getRepository().resolve(Constants.R_HEADS + InMemoryHistory.TRUNK);
+      writeChangelog(repositoryDir);
+
+      //another process holding the trunk's lock makes the ref update fail
+      Path lockFile = git.getRepository().getDirectory().toPath()
+          .resolve(Constants.R_HEADS + InMemoryHistory.TRUNK + ".lock");
+      Files.createFile(lockFile);
+
+      JGit trunkClient = new JGit(git, repositoryDir.toFile(), configurationFor(InMemoryHistory.TRUNK), null);
+      assertThrows(IOException.class, () -> trunkClient.commitAndTagInMemory("1.3.0", true));
+
+      Files.delete(lockFile);
+      assertEquals(previousTrunk, git.getRepository().resolve(Constants.R_HEADS + InMemoryHistory.TRUNK));
+      assertNull(git.getRepository().exactRef(Constants.R_TAGS + "1.3.0"));
+    }
+  }
+
+  private static RunConfiguration configurationFor(String trunk) {
+    return new RunConfiguration("test", null, null, null, null, trunk, List.of("PROJ"),
+        IssueKeyExtractor.DEFAULT_BRANCH_PREFIXES, true, List.of());
+  }
+
+  private static byte[] writeChangelog(Path repositoryDir) throws IOException {
+    Path changelogFile = Files.createDirectories(repositoryDir.resolve(ChangelogGenerator.CHANGELOG_DIRECTORY_NAME))
+        .resolve(ChangelogGenerator.CHANGELOG_FILE_NAME);
+    byte[] changelog = "# Release 1.3.0\n".getBytes(StandardCharsets.UTF_8);
+    Files.write(changelogFile, changelog);
+    return changelog;
+  }
+
+  private static List<String> indexEntries(Repository repository) throws IOException {
+    DirCache index = repository.readDirCache();
+    List<String> entries = new ArrayList<>();
+    for (int i = 0; i < index.getEntryCount(); i++) {
+      entries.add(index.getEntry(i).getPathString() + " " + index.getEntry(i).getObjectId().name());
+    }
+    return entries;
+  }
+}
@@ -0,0 +1,85 @@
+package com.blessedmusicalturkeys.projectreleasenotes.utilities;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.atlassian.jira.rest.client.api.RestClientException;
+import com.atlassian.jira.rest.client.api.domain.SearchResult;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Timothy Stratton
+ */
+class JiraClientTest {
+
+  @Test
+  void aRejectedLoginFailsTheIssueList() {
+    StubbedJiraClient jiraClient = new StubbedJiraClient(401);
+
+    RuntimeException failure = assertThrows(RuntimeException.class,
+        () -> jiraClient.getIssueList(List.of("PROJ-1", "PROJ-2")));
+
+    assertEquals(Optional.of(401), assertInstanceOf(StatusException.class, failure.getCause()).getStatusCode());
+    assertEquals(List.of("key in (PROJ-1,PROJ-2)"), jiraClient.searches);
+  }
+
+  @Test
+  void aServerErrorFailsTheIssueList() {
+    StubbedJiraClient jiraClient = new StubbedJiraClient(500);
+
+    RuntimeException failure = assertThrows(RuntimeException.class, () -> jiraClient.getIssueList(List.of("PROJ-1")));
+
+    assertEquals(Optional.of(500), assertInstanceOf(StatusException.class, failure.getCause()).getStatusCode());
+    assertEquals(List.of("key in (PROJ-1)"), jiraClient.searches);
+  }
+
+  @Test
+  void unknownIssuesAreSkipped() {
+    //JIRA fails a search for several keys with a 400 when it does not know one of them
+    StubbedJiraClient jiraClient = new StubbedJiraClient(400);
+
+    assertEquals(List.of(), jiraClient.getIssueList(List.of("PROJ-1", "PROJ-2")));
+    assertEquals(List.of("key in (PROJ-1,PROJ-2)", "key = PROJ-1", "key = PROJ-2"), jiraClient.searches);
+  }
+
+  /**
+   * Fails every search with the given status
+   */
+  private static class StubbedJiraClient extends JiraClient {
+
+    private final int statusCode;
+    private final List<String> searches = Collections.synchronizedList(new ArrayList<>());
+
+    private StubbedJiraClient(int statusCode) {
+      super(URI.create("http://127.0.0.1:1"));
+      this.statusCode = statusCode;
+    }
+
+    @Override
+    SearchResult searchJql(String jql, int maxResults, int startAt) {
+      this.searches.add(jql);
+      throw new StatusException(this.statusCode);
+    }
+  }
+
+  private static class StatusException extends RestClientException {
+
+    private final int statusCode;
+
+    private StatusException(int statusCode) {
+      super("JIRA answered with status " + statusCode, null);
+      this.statusCode = statusCode;
+    }
+
+    @Override
+    public Optional<Integer> getStatusCode() {
+      return Optional.of(this.statusCode);
+    }
+  }
+}
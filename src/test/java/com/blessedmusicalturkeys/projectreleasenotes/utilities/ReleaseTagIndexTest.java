@@ -0,0 +1,61 @@
+package com.blessedmusicalturkeys.projectreleasenotes.utilities;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Timothy Stratton
+ */
+class ReleaseTagIndexTest {
+
+  private final ReleaseTagIndex releaseTagIndex = ReleaseTagIndex.of(List.of(
+      "1.3.0", "changelog-build", "1.3.0-rc.2", "1.2.0", "1.3.0-rc.1", "1.10.0-rc.1", "1.2.1"));
+
+  @Test
+  void leavesOutTagsThatAreNotVersions() {
+    assertFalse(this.releaseTagIndex.contains("changelog-build"));
+    assertEquals(List.of("1.10.0-rc.1", "1.3.0", "1.3.0-rc.2", "1.3.0-rc.1", "1.2.1", "1.2.0"),
+        this.releaseTagIndex.getTagsNewestFirst());
+    assertTrue(ReleaseTagIndex.of(List.of("changelog-build")).isEmpty());
+  }
+
+  @Test
+  void latestIncludesPreReleasesWhileLatestReleaseDoesNot() {
+    assertEquals("1.10.0-rc.1", this.releaseTagIndex.getLatest());
+    assertEquals("1.3.0", this.releaseTagIndex.getLatestRelease());
+    assertNull(ReleaseTagIndex.of(List.of("2.0.0-rc.1")).getLatestRelease());
+    assertNull(ReleaseTagIndex.of(List.of()).getLatest());
+  }
+
+  @Test
+  void previousOfAReleaseSkipsThePreReleasesInBetween() {
+    assertEquals("1.2.1", this.releaseTagIndex.getPrevious("1.3.0"));
+    assertEquals("1.2.0", this.releaseTagIndex.getPrevious("1.2.1"));
+  }
+
+  @Test
+  void previousOfAPreReleaseIsTheNextLowerVersion() {
+    assertEquals("1.3.0-rc.1", this.releaseTagIndex.getPrevious("1.3.0-rc.2"));
+    assertEquals("1.2.1", this.releaseTagIndex.getPrevious("1.3.0-rc.1"));
+    assertEquals("1.3.0", this.releaseTagIndex.getPrevious("1.10.0-rc.1"));
+  }
+
+  @Test
+  void firstAndUnknownTagsHaveNoPrevious() {
+    assertNull(this.releaseTagIndex.getPrevious("1.2.0"));
+    assertNull(this.releaseTagIndex.getPrevious("changelog-build"));
+    assertNull(this.releaseTagIndex.getPrevious("9.9.9"));
+  }
+
+  @Test
+  void nextIncludesPreReleases() {
+    assertEquals("1.3.0-rc.1", this.releaseTagIndex.getNext("1.2.1"));
+    assertEquals("1.10.0-rc.1", this.releaseTagIndex.getNext("1.3.0"));
+    assertNull(this.releaseTagIndex.getNext("1.10.0-rc.1"));
+  }
+}
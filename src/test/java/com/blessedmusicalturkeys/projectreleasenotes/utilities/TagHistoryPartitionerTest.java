@@ -0,0 +1,149 @@
+package com.blessedmusicalturkeys.projectreleasenotes.utilities;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.eclipse.jgit.lib.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Timothy Stratton
+ */
+class TagHistoryPartitionerTest {
+
+  private final Map<String, ObjectId> tagCommits = new HashMap<>();
+  private InMemoryHistory history;
+  private TagHistoryPartitioner partitioner;
+  private ObjectId firstMerge;
+  private ObjectId secondMerge;
+  private ObjectId branchMerge;
+  private ObjectId featureMerge;
+
+  /**
+   * `1.0.0` - `1.1.0` - `1.2.0`, with a branch that started at `1.0.0` and was only merged into `1.2.0`
+   */
+  @BeforeEach
+  void buildHistory() throws IOException {
+    this.history = new InMemoryHistory();
+    this.history.commitOnTrunk("Initial commit");
+    this.firstMerge = this.history.commitOnTrunk("Merged in feature/PROJ-1-first");
+    tag("1.0.0", this.firstMerge);
+    this.branchMerge = this.history.commit("Merged in feature/PROJ-4-nested", this.firstMerge);
+    this.secondMerge = this.history.commitOnTrunk("Merged in feature/PROJ-2-second");
+    tag("1.1.0", this.secondMerge);
+    this.featureMerge = this.history.commit("Merged in feature/PROJ-5-long-running", this.secondMerge, this.branchMerge);
+    this.history.moveTrunk(this.featureMerge);
+    tag("1.2.0", this.featureMerge);
+
+    IssueKeyExtractor extractor = new IssueKeyExtractor(List.of("PROJ"), IssueKeyExtractor.DEFAULT_BRANCH_PREFIXES);
+    this.partitioner = new TagHistoryPartitioner(this.history.getRepository(), extractor::extract);
+  }
+
+  @AfterEach
+  void close() {
+    this.history.close();
+  }
+
+  @Test
+  void assignsEveryCommitToTheLowestRankedTagContainingIt() throws IOException {
+    TagHistoryPartitioner.TagPartition partition = this.partitioner.partition(List.of("1.0.0", "1.1.0", "1.2.0"),
+        this.tagCommits::get, List.of());
+
+    Map<ObjectId, String> tags = tagsOf(partition);
+    assertEquals("1.0.0", tags.get(this.firstMerge));
+    assertEquals("1.1.0", tags.get(this.secondMerge));
+    //older than `1.1.0`, but only merged into `1.2.0`
+    assertEquals("1.2.0", tags.get(this.branchMerge));
+    assertEquals("1.2.0", tags.get(this.featureMerge));
+    assertEquals(4, tags.size());
+    assertTrue(partition.ordered());
+    assertEquals(5, this.partitioner.getCommitsWalked());
+  }
+
+  @Test
+  void emitsChildrenBeforeParents() throws IOException {
+    List<ObjectId> commits = this.partitioner.partition(List.of("1.0.0", "1.1.0", "1.2.0"), this.tagCommits::get, List.of())
+        .commits().stream().map(TagHistoryPartitioner.PartitionedCommit::commitId).toList();
+
+    assertEquals(this.featureMerge, commits.get(0));
+    assertEquals(this.firstMerge, commits.get(commits.size() - 1));
+    assertTrue(commits.indexOf(this.secondMerge) < commits.indexOf(this.firstMerge));
+    assertTrue(commits.indexOf(this.branchMerge) < commits.indexOf(this.firstMerge));
+  }
+
+  @Test
+  void keepsTheIssueKeysOfEveryMergeCommit() throws IOException {
+    TagHistoryPartitioner.TagPartition partition = this.partitioner.partition(List.of("1.2.0"), this.tagCommits::get,
+        List.of());
+
+    Map<ObjectId, List<String>> issueKeys = new HashMap<>();
+    partition.commits().forEach(commit -> issueKeys.put(commit.commitId(), commit.issueKeys()));
+    assertEquals(List.of("PROJ-5"), issueKeys.get(this.featureMerge));
+    assertEquals(List.of("PROJ-4"), issueKeys.get(this.branchMerge));
+    assertEquals(List.of("PROJ-1"), issueKeys.get(this.firstMerge));
+  }
+
+  @Test
+  void leavesOutTheHistoryOfExcludedCommits() throws IOException {
+    TagHistoryPartitioner.TagPartition partition = this.partitioner.partition(List.of("1.2.0"), this.tagCommits::get,
+        List.of(this.secondMerge));
+
+    assertEquals(Map.of(this.featureMerge, "1.2.0", this.branchMerge, "1.2.0"), tagsOf(partition));
+    assertEquals(2, this.partitioner.getCommitsWalked());
+  }
+
+  @Test
+  void tagsOnTheSameCommitGoToTheLowestRank() throws IOException {
+    tag("1.1.0-rc.1", this.secondMerge);
+
+    TagHistoryPartitioner.TagPartition partition = this.partitioner.partition(List.of("1.0.0", "1.1.0-rc.1", "1.1.0"),
+        this.tagCommits::get, List.of());
+
+    assertEquals("1.1.0-rc.1", tagsOf(partition).get(this.secondMerge));
+    assertTrue(partition.ordered());
+  }
+
+  @Test
+  void detectsATagThatDoesNotContainTheTagRankedBelowIt() throws IOException {
+    tag("1.0.1", this.history.commit("Merged in hotfix/PROJ-9-backport", this.firstMerge));
+
+    TagHistoryPartitioner.TagPartition partition = this.partitioner.partition(List.of("1.0.0", "1.1.0", "1.0.1"),
+        this.tagCommits::get, List.of());
+
+    assertFalse(partition.ordered());
+    assertEquals("1.0.0", tagsOf(partition).get(this.firstMerge));
+  }
+
+  @Test
+  void nothingToPartitionWithoutTags() throws IOException {
+    TagHistoryPartitioner.TagPartition partition = this.partitioner.partition(List.of(), this.tagCommits::get, List.of());
+
+    assertTrue(partition.commits().isEmpty());
+    assertTrue(partition.ordered());
+  }
+
+  @Test
+  void containsFollowsTheHistory() throws IOException {
+    assertTrue(this.partitioner.contains(this.featureMerge, this.branchMerge));
+    assertFalse(this.partitioner.contains(this.secondMerge, this.branchMerge));
+  }
+
+  private static Map<ObjectId, String> tagsOf(TagHistoryPartitioner.TagPartition partition) {
+    Map<ObjectId, String> tags = new LinkedHashMap<>();
+    partition.commits().forEach(commit -> tags.put(commit.commitId(), commit.tag()));
+    return tags;
+  }
+
+  private void tag(String tagName, ObjectId commitId) throws IOException {
+    this.history.tag(tagName, commitId);
+    this.tagCommits.put(tagName, commitId);
+  }
+}